@@ -0,0 +1,67 @@
+package benchmarks;
+
+import api.ApiResponse;
+import api.AsyncRestClient;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dhttp.version=HTTP_1_1", "-Dhttp.preconnect=", "-Dsun.net.httpserver.nodelay=true"})
+@State(Scope.Benchmark)
+public class AsyncRestClientBenchmark {
+    private static final byte[] RESPONSE = """
+            {"data":{"id":2,"email":"janet.weaver@reqres.in","first_name":"Janet","last_name":"Weaver"}}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private AsyncRestClient client;
+    private String url;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(RESPONSE);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/users/{id}";
+        client = new AsyncRestClient();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ApiResponse get() {
+        return client.sendAsync("GET", url, Map.of("Accept", "application/json"),
+                Map.of("id", "2"), null, null, null).join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ApiResponse post() {
+        return client.sendAsync("POST", url, Map.of("Content-Type", "application/json"),
+                Map.of("id", "2"), null, null, Map.of("name", "morpheus", "job", "leader")).join();
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import api.PathExtractor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathExtractorBenchmark {
+    @Param({"10", "10000"})
+    private int size;
+
+    private final PathExtractor extractor = new PathExtractor();
+    private JsonNode root;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode node = mapper.createObjectNode();
+        node.put("page", 1);
+        ArrayNode data = node.putArray("data");
+        for (int i = 0; i < size; i++) {
+            ObjectNode user = data.addObject();
+            user.put("id", i);
+            user.put("email", "user" + i + "@example.com");
+            user.putObject("address").put("city", "city" + i);
+        }
+        root = node;
+    }
+
+    @Benchmark
+    public Object singleValue() {
+        return extractor.extractByPath(root, "$.page", "page", "integer");
+    }
+
+    @Benchmark
+    public Object indexedValue() {
+        return extractor.extractByPath(root, "$.data[5].address.city", "city", "string");
+    }
+
+    @Benchmark
+    public Object wildcardList() {
+        return extractor.extractByPath(root, "$.data.id", "ids", "list<integer>");
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import api.Context;
+import api.TypeConverter;
+import definitions.Steps;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PlaceholderResolutionBenchmark {
+    @Param({"5", "50"})
+    private int rows;
+
+    private Context context;
+    private Steps steps;
+    private Map<String, String> table;
+
+    @Setup
+    public void setUp() {
+        context = new Context();
+        context.set(Context.TYPE_CONVERTER, new TypeConverter());
+        context.set("name", "morpheus");
+        context.set("job", "leader");
+        context.set("id", 42);
+        steps = new Steps(context);
+        table = new LinkedHashMap<>();
+        for (int i = 0; i < rows; i++) {
+            switch (i % 3) {
+                case 0 -> table.put("name" + i, "{name}-{job}-" + i);
+                case 1 -> table.put("id" + i + ":integer", "{id}");
+                default -> table.put("plain" + i, "constant value " + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object addToBody() {
+        steps.addToBody(table);
+        return context.get(Context.BODY);
+    }
+}
@@ -0,0 +1,24 @@
+package benchmarks;
+
+import api.RegexGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexGeneratorBenchmark {
+    @Param({"[a-z0-9]{10}", "[A-Z][a-z]{3,8} [A-Z][a-z]{3,8}", "\\d{5}"})
+    private String regex;
+
+    private final RegexGenerator generator = new RegexGenerator();
+
+    @Benchmark
+    public Object generate() {
+        return generator.generate(regex, "string");
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import api.SchemaValidator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaValidatorBenchmark {
+    private static final String SCHEMA = "src/test/resources/schemas/user_schema.json";
+    private static final String JSON = """
+            {"data":{"id":2,"email":"janet.weaver@reqres.in","first_name":"Janet","last_name":"Weaver",
+            "avatar":"https://reqres.in/img/faces/2-image.jpg"},
+            "support":{"url":"https://reqres.in/#support-heading","text":"To keep ReqRes free"}}""";
+
+    private final SchemaValidator validator = new SchemaValidator();
+    private JsonNode node;
+
+    @Setup
+    public void setUp() throws Exception {
+        node = new ObjectMapper().readTree(JSON);
+    }
+
+    @Benchmark
+    public void validateString() throws Exception {
+        validator.validate(JSON, SCHEMA);
+    }
+
+    @Benchmark
+    public void validateTree() {
+        validator.validate(node, SCHEMA);
+    }
+}
@@ -0,0 +1,39 @@
+package benchmarks;
+
+import api.TypeConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeConverterBenchmark {
+    @Param({"string:hello", "integer:12345", "double:3.14159", "boolean:true"})
+    private String input;
+
+    private final TypeConverter converter = new TypeConverter();
+    private String type;
+    private String value;
+    private TypeConverter.Converter resolved;
+
+    @Setup
+    public void setUp() {
+        type = input.substring(0, input.indexOf(':'));
+        value = input.substring(input.indexOf(':') + 1);
+        resolved = TypeConverter.resolve(type);
+    }
+
+    @Benchmark
+    public Object convert() {
+        return converter.convert(value, type);
+    }
+
+    @Benchmark
+    public Object convertResolved() {
+        return resolved.fromString(value);
+    }
+}
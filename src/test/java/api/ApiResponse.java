@@ -0,0 +1,109 @@
+package api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+public final class ApiResponse {
+    private static final ObjectMapper OBJECT_MAPPER = Json.mapper();
+
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final URI uri;
+    private final byte[] body;
+    private volatile String text;
+    private volatile JsonNode json;
+
+    public ApiResponse(int statusCode, HttpHeaders headers, URI uri, byte[] body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.uri = uri;
+        this.body = body;
+    }
+
+    public static ApiResponse of(HttpResponse<byte[]> response) {
+        return new ApiResponse(response.statusCode(), response.headers(), response.uri(), response.body());
+    }
+
+    public static ApiResponse withoutBody(HttpResponse<?> response) {
+        return new ApiResponse(response.statusCode(), response.headers(), response.uri(), null);
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    public boolean hasBody() {
+        return body != null && body.length > 0;
+    }
+
+    public byte[] bytes() {
+        return requireBody();
+    }
+
+    public String body() {
+        String result = text;
+        if (result == null) {
+            result = new String(requireBody(), charset());
+            text = result;
+        }
+        return result;
+    }
+
+    public JsonNode json() {
+        JsonNode result = json;
+        if (result == null) {
+            synchronized (this) {
+                result = json;
+                if (result == null) {
+                    try {
+                        result = OBJECT_MAPPER.readTree(requireBody());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("response body is not valid JSON", e);
+                    }
+                    json = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private byte[] requireBody() {
+        if (body == null) {
+            throw new IllegalStateException("response body was streamed and is not available");
+        }
+        return body;
+    }
+
+    private Charset charset() {
+        return headers.firstValue("Content-Type")
+                .flatMap(contentType -> {
+                    for (String parameter : contentType.split(";")) {
+                        String trimmed = parameter.trim();
+                        if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                            return Optional.of(trimmed.substring(8).replace("\"", ""));
+                        }
+                    }
+                    return Optional.empty();
+                })
+                .filter(Charset::isSupported)
+                .map(Charset::forName)
+                .orElse(StandardCharsets.UTF_8);
+    }
+}
@@ -1,7 +1,6 @@
 package api;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -12,29 +11,119 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-public class AsyncRestClient {
+public class AsyncRestClient implements AutoCloseable {
     private static final Logger logger = LogManager.getLogger(AsyncRestClient.class);
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
-            .enable(SerializationFeature.INDENT_OUTPUT);
+    private static final ObjectWriter PRETTY_WRITER = Json.mapper().writerWithDefaultPrettyPrinter();
+
+    private static final int LOG_BODY_MAX_CHARS = Config.getInt("log.body.max-chars", 4096);
+    private static final String HEADER_PADDING = " ".repeat(40);
+    private static final boolean METRICS_ENABLED = Config.getBoolean("metrics.enabled", true);
+    private static final boolean COMPRESSION_ENABLED = Config.getBoolean("http.compression", false);
+    private static volatile AsyncRestClient shared;
 
     private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Duration requestTimeout;
+    private final FixtureStore fixtureStore;
+    private final ResponseCache responseCache;
 
     public AsyncRestClient() {
+        this.fixtureStore = FixtureStore.fromConfig();
+        this.responseCache = fixtureStore.mode() == FixtureStore.Mode.LIVE ? ResponseCache.fromConfig() : null;
+        this.executor = createExecutor(Config.get("http.executor", "virtual"));
+        this.requestTimeout = Config.getDuration("http.request-timeout-ms", Duration.ofSeconds(30));
         this.httpClient = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_2)
-                .executor(Executors.newThreadPerTaskExecutor(
-                        Thread.ofVirtual().factory())).build();
+                .version(HttpClient.Version.valueOf(Config.get("http.version", "HTTP_2")))
+                .connectTimeout(Config.getDuration("http.connect-timeout-ms", Duration.ofSeconds(10)))
+                .executor(executor).build();
+    }
+
+    public static AsyncRestClient shared() {
+        AsyncRestClient client = shared;
+        if (client == null) {
+            synchronized (AsyncRestClient.class) {
+                client = shared;
+                if (client == null) {
+                    client = new AsyncRestClient();
+                    shared = client;
+                }
+            }
+        }
+        return client;
     }
 
-    public CompletableFuture<HttpResponse<String>> sendAsync(
+    public static void closeShared() {
+        synchronized (AsyncRestClient.class) {
+            if (shared != null) {
+                shared.close();
+                shared = null;
+            }
+        }
+    }
+
+    public void warmUp() {
+        if (fixtureStore.mode() == FixtureStore.Mode.REPLAY) {
+            return;
+        }
+        String preconnect = Config.get("http.preconnect", "");
+        List<CompletableFuture<Void>> connections = Stream.of(preconnect.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> httpClient.sendAsync(
+                                HttpRequest.newBuilder(URI.create(url))
+                                        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                                        .timeout(requestTimeout)
+                                        .build(),
+                                HttpResponse.BodyHandlers.discarding())
+                        .<Void>handle((response, error) -> {
+                            if (error != null) {
+                                logger.warn("Failed to preconnect to {}: {}", url, error.toString());
+                            } else {
+                                logger.debug("Preconnected to {} with status {}", url, response.statusCode());
+                            }
+                            return null;
+                        }))
+                .toList();
+        CompletableFuture.allOf(connections.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @Override
+    public void close() {
+        fixtureStore.close();
+        httpClient.close();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ExecutorService createExecutor(String executor) {
+        if (executor.startsWith("fixed:")) {
+            return Executors.newFixedThreadPool(Integer.parseInt(executor.substring(6)));
+        }
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+    }
+
+    public CompletableFuture<ApiResponse> sendAsync(
             String method,
             String url,
             Map<String, String> headers,
@@ -42,9 +131,138 @@ public class AsyncRestClient {
             Map<String, String> queryParams,
             Map<String, String> formParams,
             Object body) {
+        if (responseCache == null) {
+            return exchange(method, url, headers, pathParams, queryParams, formParams, body,
+                    HttpResponse.BodyHandlers.ofByteArray(), ApiResponse::of);
+        }
+        URI uri = URI.create(resolveUrl(url, pathParams, queryParams));
+        if (ResponseCache.isCacheable(method, headers, body, formParams)) {
+            return responseCache.get(ResponseCache.key(method, uri, headers), uri, validators -> exchange(
+                    method, url, withHeaders(headers, validators), pathParams, queryParams, formParams, body,
+                    HttpResponse.BodyHandlers.ofByteArray(), ApiResponse::of));
+        }
+        CompletableFuture<ApiResponse> response = exchange(method, url, headers, pathParams, queryParams,
+                formParams, body, HttpResponse.BodyHandlers.ofByteArray(), ApiResponse::of);
+        return ResponseCache.invalidates(method)
+                ? response.whenComplete((result, error) -> responseCache.invalidate(uri))
+                : response;
+    }
 
-        Instant start = Instant.now();
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+            String method,
+            String url,
+            Map<String, String> headers,
+            Map<String, String> pathParams,
+            Map<String, String> queryParams,
+            Map<String, String> formParams,
+            Object body,
+            HttpResponse.BodyHandler<T> bodyHandler) {
+        return exchange(method, url, headers, pathParams, queryParams, formParams, body,
+                bodyHandler, Function.identity());
+    }
+
+    private <T, R> CompletableFuture<R> exchange(
+            String method,
+            String url,
+            Map<String, String> headers,
+            Map<String, String> pathParams,
+            Map<String, String> queryParams,
+            Map<String, String> formParams,
+            Object body,
+            HttpResponse.BodyHandler<T> bodyHandler,
+            Function<HttpResponse<T>, R> mapper) {
+
+        long start = System.nanoTime();
+        String endpoint = url.contains("?") ? url.substring(0, url.indexOf('?')) : url;
+        url = resolveUrl(url, pathParams, queryParams);
+
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout);
+
+        RequestBody requestBody = RequestBody.of(body, formParams);
+
+        requestBuilder.method(method, requestBody.publisher());
+
+        if (headers != null && !headers.isEmpty()) {
+            headers.forEach(requestBuilder::header);
+        }
+        if (requestBody.contentType() != null && !hasHeader(headers, "Content-Type")) {
+            requestBuilder.header("Content-Type", requestBody.contentType());
+        }
+        if (COMPRESSION_ENABLED && !hasHeader(headers, "Accept-Encoding")) {
+            requestBuilder.header("Accept-Encoding", "gzip, deflate");
+        }
+
+        String finalUrl = url;
+        long requestBytes = requestBody.length();
+
+        HttpRequest request = requestBuilder.build();
+        String fixtureKey = fixtureStore.mode() != FixtureStore.Mode.LIVE
+                ? fixtureStore.key(method, endpoint, request.uri(), requestBody)
+                : null;
+
+        if (logger.isDebugEnabled()) {
+            logRequest(method, finalUrl, headers, body);
+        }
+        AtomicReference<MeteredBodyHandler<T>> lastHandler = new AtomicReference<>();
+        Supplier<CompletableFuture<HttpResponse<T>>> attempt = () -> {
+            long attemptStart = System.nanoTime();
+            FlightEvents.HttpExchange event = new FlightEvents.HttpExchange();
+            event.begin();
+            MeteredBodyHandler<T> meteredHandler = new MeteredBodyHandler<>(bodyHandler,
+                    fixtureStore.mode() == FixtureStore.Mode.RECORD);
+            lastHandler.set(meteredHandler);
+            CompletableFuture<HttpResponse<T>> sent = fixtureStore.mode() == FixtureStore.Mode.REPLAY
+                    ? fixtureStore.replay(fixtureKey, request, meteredHandler)
+                    : httpClient.sendAsync(request, meteredHandler);
+            return sent.whenComplete((response, error) -> meteredHandler.bodyFinished(error)
+                    .whenComplete((done, bodyError) -> {
+                        Throwable failure = error != null ? error : bodyError;
+                        if (failure == null && fixtureStore.mode() == FixtureStore.Mode.RECORD) {
+                            ApiResponse captured = meteredHandler.captured(response);
+                            if (captured != null) {
+                                fixtureStore.record(fixtureKey, captured);
+                            }
+                        }
+                        if (METRICS_ENABLED) {
+                            HttpMetrics.global().record(new HttpExchange(
+                                    method,
+                                    endpoint,
+                                    response != null ? response.statusCode() : 0,
+                                    requestBytes,
+                                    meteredHandler.responseBytes(),
+                                    meteredHandler.decodedResponseBytes(),
+                                    meteredHandler.timeToHeaders(attemptStart),
+                                    System.nanoTime() - attemptStart));
+                        }
+                        event.end();
+                        if (event.shouldCommit()) {
+                            event.method = method;
+                            event.endpoint = endpoint;
+                            event.statusCode = response != null ? response.statusCode() : 0;
+                            event.requestBytes = requestBytes;
+                            event.responseBytes = meteredHandler.responseBytes();
+                            event.decodedResponseBytes = meteredHandler.decodedResponseBytes();
+                            event.error = failure != null ? failure.toString() : null;
+                            event.commit();
+                        }
+                    }));
+        };
+        CompletableFuture<HttpResponse<T>> sent = fixtureStore.mode() == FixtureStore.Mode.REPLAY
+                ? attempt.get()
+                : HostGuard.of(request.uri()).send(method, executor, attempt, discarded -> lastHandler.get().discard());
+        return sent
+                .thenApply(response -> {
+                    R result = mapper.apply(response);
+                    if (logger.isDebugEnabled()) {
+                        logResponse(method, finalUrl, response, result, Duration.ofNanos(System.nanoTime() - start));
+                    }
+                    return result;
+                });
+    }
 
+    private static String resolveUrl(String url, Map<String, String> pathParams, Map<String, String> queryParams) {
         if (pathParams != null && !pathParams.isEmpty()) {
             for (Map.Entry<String, String> entry : pathParams.entrySet()) {
                 url = url.replace("{" + entry.getKey() + "}", URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
@@ -58,41 +276,16 @@ public class AsyncRestClient {
                     .collect(Collectors.joining("&"));
             url += (url.contains("?") ? "&" : "?") + queryString;
         }
+        return url;
+    }
 
-        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
-                .uri(URI.create(url));
-
-        HttpRequest.BodyPublisher bodyPublisher;
-
-        if (body != null) {
-            bodyPublisher = HttpRequest.BodyPublishers.ofString(body.toString());
-        } else {
-            bodyPublisher = HttpRequest.BodyPublishers.noBody();
-        }
-
-        if (formParams != null && !formParams.isEmpty()) {
-            String formBody = formParams.entrySet().stream()
-                    .map(entry -> URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "=" +
-                            URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8))
-                    .collect(Collectors.joining("&"));
-            bodyPublisher = HttpRequest.BodyPublishers.ofString(formBody);
-        }
-
-        requestBuilder.method(method, bodyPublisher);
-
-        if (headers != null && !headers.isEmpty()) {
-            headers.forEach(requestBuilder::header);
+    private static Map<String, String> withHeaders(Map<String, String> headers, Map<String, String> extra) {
+        if (extra.isEmpty()) {
+            return headers;
         }
-
-        String finalUrl = url;
-
-        logRequest(method, finalUrl, headers, body);
-        return httpClient.sendAsync(requestBuilder.build(), HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    Duration duration = Duration.between(start, Instant.now());
-                    logResponse(method, finalUrl, response, duration);
-                    return response;
-                });
+        Map<String, String> merged = new LinkedHashMap<>(headers != null ? headers : Map.of());
+        merged.putAll(extra);
+        return merged;
     }
 
     private void logRequest(String method, String url, Map<String, String> headers, Object body) {
@@ -110,19 +303,22 @@ public class AsyncRestClient {
                             ╚═══════════════════════════════════════════════════""",
                     method,
                     url,
-                    formatHeaders(headers),
-                    body != null ? OBJECT_MAPPER.writeValueAsString(body) : "<EMPTY>");
+                    headers != null ? formatHeaders(headers) : "",
+                    body != null ? truncate(PRETTY_WRITER.writeValueAsString(body)) : "<EMPTY>");
         } catch (Exception e) {
             logger.error("Failed to log request", e);
         }
     }
 
     private void logResponse(String method, String url,
-                             HttpResponse<String> response, Duration duration) {
+                             HttpResponse<?> response, Object result, Duration duration) {
         try {
-            String prettyBody = response.body() != null
-                    ? OBJECT_MAPPER.readTree(response.body()).toPrettyString()
-                    : "<EMPTY>";
+            String prettyBody;
+            if (result instanceof ApiResponse apiResponse) {
+                prettyBody = apiResponse.hasBody() ? truncate(prettyPrint(apiResponse)) : "<EMPTY>";
+            } else {
+                prettyBody = response.body() != null ? "<STREAMED>" : "<EMPTY>";
+            }
 
             logger.debug("""
                             
@@ -148,27 +344,117 @@ public class AsyncRestClient {
         }
     }
 
-    private String formatHeaders(Map<String, ?> headers) {
-        return headers.entrySet().stream()
-                .flatMap(entry -> {
-                    Object value = entry.getValue();
-                    if (value instanceof String) {
-                        return Stream.of(String.format("| %-40s = %-40s |", entry.getKey(), value));
-                    } else if (value instanceof List) {
-                        return ((List<?>) value).stream()
-                                .map(item -> String.format("| %-40s = %-40s |", entry.getKey(), item));
-                    }
-                    return Stream.of(String.format("| %-40s = %-40s |", entry.getKey(), "⚠️ Invalid Header"));
-                })
-                .collect(Collectors.joining("\n"));
+    private static boolean hasHeader(Map<String, String> headers, String name) {
+        return headers != null && headers.keySet().stream().anyMatch(name::equalsIgnoreCase);
     }
 
-    private String serializeBody(Object body) {
+    private String prettyPrint(ApiResponse response) {
+        if (response.bytes().length > LOG_BODY_MAX_CHARS) {
+            return response.body();
+        }
         try {
-            return OBJECT_MAPPER.writeValueAsString(body);
+            return response.json().toPrettyString();
         } catch (Exception e) {
-            logger.error("Failed to serialize body", e);
-            throw new RuntimeException(e);
+            return response.body();
+        }
+    }
+
+    private String truncate(String text) {
+        if (text.length() <= LOG_BODY_MAX_CHARS) {
+            return text;
+        }
+        return text.substring(0, LOG_BODY_MAX_CHARS) + "... <" + (text.length() - LOG_BODY_MAX_CHARS) + " more chars>";
+    }
+
+    private String formatHeaders(Map<String, ?> headers) {
+        StringBuilder builder = new StringBuilder();
+        headers.forEach((name, value) -> {
+            if (value instanceof String) {
+                appendHeader(builder, name, value);
+            } else if (value instanceof List<?> values) {
+                values.forEach(item -> appendHeader(builder, name, item));
+            } else {
+                appendHeader(builder, name, "⚠️ Invalid Header");
+            }
+        });
+        return builder.toString();
+    }
+
+    private void appendHeader(StringBuilder builder, String name, Object value) {
+        String text = String.valueOf(value);
+        if (!builder.isEmpty()) {
+            builder.append('\n');
+        }
+        builder.append("| ").append(name);
+        if (name.length() < 40) {
+            builder.append(HEADER_PADDING, 0, 40 - name.length());
+        }
+        builder.append(" = ").append(text);
+        if (text.length() < 40) {
+            builder.append(HEADER_PADDING, 0, 40 - text.length());
+        }
+        builder.append(" |");
+    }
+
+    private static final class MeteredBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+        private final HttpResponse.BodyHandler<T> delegate;
+        private volatile long headersReceivedAt = -1;
+        private volatile CountingBodySubscriber<T> wireSubscriber;
+        private volatile CountingBodySubscriber<T> decodedSubscriber;
+        private final boolean capture;
+
+        private MeteredBodyHandler(HttpResponse.BodyHandler<T> delegate, boolean capture) {
+            this.delegate = delegate;
+            this.capture = capture;
+        }
+
+        @Override
+        public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo responseInfo) {
+            headersReceivedAt = System.nanoTime();
+            String contentEncoding = responseInfo.headers().firstValue("Content-Encoding").orElse(null);
+            if (COMPRESSION_ENABLED && InflatingBodySubscriber.supports(contentEncoding)) {
+                decodedSubscriber = new CountingBodySubscriber<>(delegate.apply(responseInfo), capture);
+                wireSubscriber = new CountingBodySubscriber<>(InflatingBodySubscriber.of(contentEncoding, decodedSubscriber));
+            } else {
+                wireSubscriber = new CountingBodySubscriber<>(delegate.apply(responseInfo), capture);
+                decodedSubscriber = wireSubscriber;
+            }
+            return wireSubscriber;
+        }
+
+        private CompletionStage<Void> bodyFinished(Throwable error) {
+            CountingBodySubscriber<T> subscriber = wireSubscriber;
+            return error != null || subscriber == null ? CompletableFuture.completedFuture(null) : subscriber.finished();
+        }
+
+        private void discard() {
+            CountingBodySubscriber<T> subscriber = wireSubscriber;
+            if (subscriber != null) {
+                subscriber.cancel();
+            }
+        }
+
+        private ApiResponse captured(HttpResponse<?> response) {
+            CountingBodySubscriber<T> subscriber = decodedSubscriber;
+            if (subscriber == null || !subscriber.isComplete()) {
+                return null;
+            }
+            return new ApiResponse(response.statusCode(), response.headers(), response.uri(), subscriber.captured());
+        }
+
+        private long timeToHeaders(long start) {
+            long receivedAt = headersReceivedAt;
+            return receivedAt < 0 ? -1 : receivedAt - start;
+        }
+
+        private long responseBytes() {
+            CountingBodySubscriber<T> subscriber = wireSubscriber;
+            return subscriber != null ? subscriber.bytes() : 0;
+        }
+
+        private long decodedResponseBytes() {
+            CountingBodySubscriber<T> subscriber = decodedSubscriber;
+            return subscriber != null ? subscriber.bytes() : 0;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public final class CellTemplate {
+    private static final Map<String, CellTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final String source;
+    private final String[] literals;
+    private final String[] placeholders;
+
+    private CellTemplate(String source, String[] literals, String[] placeholders) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    public static CellTemplate compile(String source) {
+        return CACHE.computeIfAbsent(source, CellTemplate::parse);
+    }
+
+    private static CellTemplate parse(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+        int literalStart = 0;
+        while (position < source.length()) {
+            int open = source.indexOf('{', position);
+            if (open < 0) break;
+            int close = source.indexOf('}', open + 2);
+            if (close < 0) break;
+            literals.add(source.substring(literalStart, open));
+            placeholders.add(source.substring(open + 1, close));
+            position = close + 1;
+            literalStart = position;
+        }
+        literals.add(source.substring(literalStart));
+        return new CellTemplate(source, literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    public boolean isConstant() {
+        return placeholders.length == 0;
+    }
+
+    public String singlePlaceholder() {
+        return placeholders.length == 1 && literals[0].isEmpty() && literals[1].isEmpty() ? placeholders[0] : null;
+    }
+
+    public String render(Function<String, Object> lookup, StringBuilder builder) {
+        if (isConstant()) {
+            return source;
+        }
+        builder.setLength(0);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]);
+            Object value = lookup.apply(placeholders[i]);
+            if (value != null) {
+                builder.append(value);
+            } else {
+                builder.append('{').append(placeholders[i]).append('}');
+            }
+        }
+        return builder.append(literals[placeholders.length]).toString();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
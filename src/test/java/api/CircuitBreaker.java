@@ -0,0 +1,60 @@
+package api;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+final class CircuitBreaker {
+    enum Status { CLOSED, OPEN, HALF_OPEN }
+
+    private record State(Status status, int failures, long openedAt) {
+    }
+
+    private static final State CLOSED = new State(Status.CLOSED, 0, 0);
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(CLOSED);
+
+    CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    boolean tryAcquire() {
+        if (failureThreshold <= 0) {
+            return true;
+        }
+        State current = state.get();
+        return switch (current.status()) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> System.nanoTime() - current.openedAt() >= openNanos
+                    && state.compareAndSet(current, new State(Status.HALF_OPEN, current.failures(), current.openedAt()));
+        };
+    }
+
+    boolean record(boolean success) {
+        if (failureThreshold <= 0) {
+            return false;
+        }
+        while (true) {
+            State current = state.get();
+            State next;
+            if (success) {
+                next = CLOSED;
+            } else if (current.status() == Status.OPEN) {
+                return false;
+            } else if (current.status() == Status.HALF_OPEN || current.failures() + 1 >= failureThreshold) {
+                next = new State(Status.OPEN, current.failures() + 1, System.nanoTime());
+            } else {
+                next = new State(Status.CLOSED, current.failures() + 1, 0);
+            }
+            if (current == next || state.compareAndSet(current, next)) {
+                return next.status() == Status.OPEN;
+            }
+        }
+    }
+
+    Status status() {
+        return state.get().status();
+    }
+}
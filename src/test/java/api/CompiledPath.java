@@ -0,0 +1,59 @@
+package api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class CompiledPath {
+    private static final Pattern ARRAY_INDEX_PATTERN = Pattern.compile("(.+)\\[(\\d+)]");
+    private static final Map<String, CompiledPath> CACHE = new ConcurrentHashMap<>();
+
+    private final String expression;
+    private final Segment[] segments;
+
+    private CompiledPath(String expression, Segment[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    public static CompiledPath compile(String path) {
+        return CACHE.computeIfAbsent(path, CompiledPath::parse);
+    }
+
+    private static CompiledPath parse(String path) {
+        String effectivePath = path.startsWith("$.") ? path.substring(2) : path;
+        String[] parts = effectivePath.split("\\.");
+        Segment[] segments = new Segment[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            Matcher arrayMatcher = ARRAY_INDEX_PATTERN.matcher(parts[i]);
+            segments[i] = arrayMatcher.matches()
+                    ? new Segment(arrayMatcher.group(1), Integer.parseInt(arrayMatcher.group(2)))
+                    : new Segment(parts[i], -1);
+        }
+        return new CompiledPath(path, segments);
+    }
+
+    public String expression() {
+        return expression;
+    }
+
+    public int length() {
+        return segments.length;
+    }
+
+    public Segment segment(int depth) {
+        return segments[depth];
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    public record Segment(String name, int index) {
+        public boolean isIndexed() {
+            return index >= 0;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package api;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Properties;
+
+public final class Config {
+    private static final Logger logger = LogManager.getLogger(Config.class);
+    private static final String RESOURCE = "firegate.properties";
+    private static final Properties PROPERTIES = load();
+
+    private Config() {
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = PROPERTIES.getProperty(key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        return Long.parseLong(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static Duration getDuration(String key, Duration defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Duration.ofMillis(Long.parseLong(value));
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream stream = Config.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (stream != null) {
+                properties.load(stream);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to load {}", RESOURCE, e);
+        }
+        return properties;
+    }
+}
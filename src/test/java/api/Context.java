@@ -2,20 +2,105 @@ package api;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 
 public class Context {
-    private static final ThreadLocal<Map<String, Object>> threadLocalContext =
-            ThreadLocal.withInitial(ConcurrentHashMap::new);
+    private static final Map<String, Key<?>> KEYS = new ConcurrentHashMap<>();
+
+    public static final Key<String> SCENARIO_ID = slot("scenarioId");
+    public static final Key<AsyncRestClient> REST_CLIENT = slot("RestClient", context -> AsyncRestClient.shared());
+    public static final Key<SchemaValidator> SCHEMA_VALIDATOR = slot("SchemaValidator",
+            context -> SchemaValidator.shared());
+    public static final Key<RegexGenerator> REGEX_GENERATOR = slot("RegexGenerator", context -> {
+        String scenarioId = context.get(SCENARIO_ID);
+        return scenarioId != null ? RegexGenerator.forScenario(scenarioId) : new RegexGenerator();
+    });
+    public static final Key<PathExtractor> PATH_EXTRACTOR = slot("PathExtractor", context -> PathExtractor.shared());
+    public static final Key<TypeConverter> TYPE_CONVERTER = slot("TypeConverter", context -> TypeConverter.shared());
+    public static final Key<String> BASE_URL = slot("baseUrl");
+    public static final Key<String> ENDPOINT = slot("endpoint");
+    public static final Key<Map<String, String>> HEADERS = slot("headers");
+    public static final Key<Map<String, String>> PATH_PARAMETERS = slot("pathParameters");
+    public static final Key<Map<String, String>> QUERY_PARAMETERS = slot("queryParameters");
+    public static final Key<Map<String, String>> FORM_PARAMETERS = slot("formParameters");
+    public static final Key<Object> BODY = slot("body");
+    public static final Key<Object> RESPONSE = slot("response");
+    public static final Key<Object> RESPONSES = slot("responses");
+    public static final Key<LoadRunner.LoadReport> LOAD_REPORT = slot("loadReport");
+    public static final Key<FeedReport> FEED_REPORT = slot("feedReport");
+    public static final Key<Integer> FEED_COUNT = slot("feedCount");
+
+    private final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(KEYS.size());
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    public <T> void set(Key<T> key, T value) {
+        slots.set(key.slot, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key<T> key) {
+        Object value = slots.get(key.slot);
+        if (value == null && key.initializer != null) {
+            value = key.initializer.apply(this);
+            if (!slots.compareAndSet(key.slot, null, value)) {
+                value = slots.get(key.slot);
+            }
+        }
+        return (T) value;
+    }
 
     public void set(String key, Object value) {
-        threadLocalContext.get().put(key, value);
+        Key<?> slotKey = KEYS.get(key);
+        if (slotKey != null) {
+            slots.set(slotKey.slot, value);
+        } else if (value == null) {
+            values.remove(key);
+        } else {
+            values.put(key, value);
+        }
     }
 
     public <T> T get(String key, Class<T> type) {
-        return type.cast(threadLocalContext.get().get(key));
+        Key<?> slotKey = KEYS.get(key);
+        return type.cast(slotKey != null ? get(slotKey) : values.get(key));
     }
 
     public void reset() {
-        threadLocalContext.get().clear();
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        values.clear();
+    }
+
+    private static <T> Key<T> slot(String name) {
+        return slot(name, null);
+    }
+
+    private static <T> Key<T> slot(String name, Function<Context, T> initializer) {
+        Key<T> key = new Key<>(name, KEYS.size(), initializer);
+        KEYS.put(name, key);
+        return key;
+    }
+
+    public static final class Key<T> {
+        private final String name;
+        private final int slot;
+        private final Function<Context, T> initializer;
+
+        private Key(String name, int slot, Function<Context, T> initializer) {
+            this.name = name;
+            this.slot = slot;
+            this.initializer = initializer;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
     }
-}
\ No newline at end of file
+}
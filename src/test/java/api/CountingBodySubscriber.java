@@ -0,0 +1,107 @@
+package api;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+final class CountingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+    private final HttpResponse.BodySubscriber<T> delegate;
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+    private final ByteArrayOutputStream captured;
+    private volatile long bytes;
+    private volatile boolean complete;
+    private volatile Flow.Subscription subscription;
+
+    CountingBodySubscriber(HttpResponse.BodySubscriber<T> delegate) {
+        this(delegate, false);
+    }
+
+    CountingBodySubscriber(HttpResponse.BodySubscriber<T> delegate, boolean capture) {
+        this.delegate = delegate;
+        this.captured = capture ? new ByteArrayOutputStream() : null;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    CompletionStage<Void> finished() {
+        return finished;
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    byte[] captured() {
+        return captured != null ? captured.toByteArray() : null;
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                subscription.request(n);
+            }
+
+            @Override
+            public void cancel() {
+                subscription.cancel();
+                finished.complete(null);
+            }
+        };
+        delegate.onSubscribe(this.subscription);
+    }
+
+    void cancel() {
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        long received = 0;
+        for (ByteBuffer item : items) {
+            received += item.remaining();
+            if (captured != null) {
+                ByteBuffer copy = item.duplicate();
+                byte[] chunk = new byte[copy.remaining()];
+                copy.get(chunk);
+                captured.writeBytes(chunk);
+            }
+        }
+        bytes += received;
+        delegate.onNext(items);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        try {
+            delegate.onError(throwable);
+        } finally {
+            finished.completeExceptionally(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        complete = true;
+        try {
+            delegate.onComplete();
+        } finally {
+            finished.complete(null);
+        }
+    }
+}
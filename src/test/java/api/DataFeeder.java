@@ -0,0 +1,185 @@
+package api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public final class DataFeeder implements Iterator<Map<String, Object>>, Closeable {
+    private static final ObjectMapper OBJECT_MAPPER = Json.mapper();
+    private static final TypeConverter TYPE_CONVERTER = TypeConverter.shared();
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final KeyDescriptor[] columns;
+    private Map<String, Object> next;
+    private long lineNumber;
+
+    private DataFeeder(Path file, BufferedReader reader, boolean csv) throws IOException {
+        this.file = file;
+        this.reader = reader;
+        this.csv = csv;
+        this.columns = csv ? header() : null;
+    }
+
+    public static DataFeeder open(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        boolean csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".jsonl") && !name.endsWith(".ndjson")) {
+            throw new IllegalArgumentException("data file must be .csv, .jsonl or .ndjson: " + file);
+        }
+        try {
+            BufferedReader reader = new BufferedReader(
+                    Files.newBufferedReader(file, StandardCharsets.UTF_8), BUFFER_SIZE);
+            return new DataFeeder(file, reader, csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = csv ? readCsvRow() : readJsonRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map<String, Object> row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private KeyDescriptor[] header() throws IOException {
+        List<String> names = readCsvRecord();
+        if (names == null) {
+            throw new IllegalArgumentException("csv data file has no header row: " + file);
+        }
+        return names.stream().map(name -> KeyDescriptor.compile(name.trim())).toArray(KeyDescriptor[]::new);
+    }
+
+    private Map<String, Object> readCsvRow() throws IOException {
+        List<String> values = readCsvRecord();
+        if (values == null) {
+            return null;
+        }
+        if (values.size() != columns.length) {
+            throw new IllegalArgumentException(String.format("%s:%d has %d values but the header has %d columns",
+                    file, lineNumber, values.size(), columns.length));
+        }
+        Map<String, Object> row = new LinkedHashMap<>(columns.length * 2);
+        for (int i = 0; i < columns.length; i++) {
+            row.put(columns[i].key(), TYPE_CONVERTER.convert(values.get(i), columns[i].type()));
+        }
+        return row;
+    }
+
+    private List<String> readCsvRecord() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int position = 0;
+        while (true) {
+            if (position == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    throw new IllegalArgumentException(file + " ends inside a quoted value");
+                }
+                value.append('\n');
+                position = 0;
+                continue;
+            }
+            char c = line.charAt(position++);
+            if (quoted) {
+                if (c == '"' && position < line.length() && line.charAt(position) == '"') {
+                    value.append('"');
+                    position++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private Map<String, Object> readJsonRow() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        JsonNode node = OBJECT_MAPPER.readTree(line);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException(String.format("%s:%d is not a json object", file, lineNumber));
+        }
+        Map<String, Object> row = new LinkedHashMap<>(node.size() * 2);
+        node.fields().forEachRemaining(field -> {
+            if (field.getKey().indexOf(':') > 0) {
+                KeyDescriptor descriptor = KeyDescriptor.compile(field.getKey());
+                row.put(descriptor.key(), TYPE_CONVERTER.convert(field.getValue(), descriptor.type()));
+            } else {
+                row.put(field.getKey(), OBJECT_MAPPER.convertValue(field.getValue(), Object.class));
+            }
+        });
+        return row;
+    }
+}
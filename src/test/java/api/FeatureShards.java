@@ -0,0 +1,62 @@
+package api;
+
+import io.cucumber.testng.PickleWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class FeatureShards {
+    private FeatureShards() {
+    }
+
+    public static Object[][] select(Object[][] scenarios, int shardCount, int shardIndex, ScenarioDurations durations) {
+        if (shardCount <= 1) {
+            return scenarios;
+        }
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException(String.format("shard index %d is outside of 0..%d", shardIndex, shardCount - 1));
+        }
+        Set<String> features = assign(scenarios, shardCount, durations).get(shardIndex);
+        return Arrays.stream(scenarios)
+                .filter(scenario -> features.contains(ScenarioDurations.feature(id(scenario))))
+                .toArray(Object[][]::new);
+    }
+
+    static List<Set<String>> assign(Object[][] scenarios, int shardCount, ScenarioDurations durations) {
+        long unknown = durations.average();
+        Map<String, Long> featureCosts = new LinkedHashMap<>();
+        for (Object[] scenario : scenarios) {
+            String id = id(scenario);
+            featureCosts.merge(ScenarioDurations.feature(id), durations.estimate(id, unknown), Long::sum);
+        }
+
+        List<Set<String>> shards = new ArrayList<>(shardCount);
+        long[] loads = new long[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new HashSet<>());
+        }
+        List<Map.Entry<String, Long>> costliestFirst = featureCosts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .toList();
+        for (Map.Entry<String, Long> feature : costliestFirst) {
+            int lightest = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            shards.get(lightest).add(feature.getKey());
+            loads[lightest] += feature.getValue();
+        }
+        return shards;
+    }
+
+    private static String id(Object[] scenario) {
+        return ScenarioDurations.id(((PickleWrapper) scenario[0]).getPickle());
+    }
+}
@@ -0,0 +1,86 @@
+package api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class FeedReport implements AutoCloseable {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Path resultsFile;
+    private final BufferedWriter writer;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    public FeedReport(Path resultsFile) {
+        this.resultsFile = resultsFile;
+        try {
+            Files.createDirectories(resultsFile.toAbsolutePath().getParent());
+            this.writer = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void record(long row, int statusCode, long latencyNanos, boolean passed, String error) {
+        rows.increment();
+        if (!passed) {
+            failures.increment();
+        }
+        latencies.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        synchronized (writer) {
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartObject();
+                generator.writeNumberField("row", row);
+                generator.writeBooleanField("passed", passed);
+                generator.writeNumberField("status", statusCode);
+                generator.writeNumberField("latencyMs", latencyNanos / 1e6);
+                if (error != null) {
+                    generator.writeStringField("error", error);
+                }
+                generator.writeEndObject();
+                generator.flush();
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public long rows() {
+        return rows.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public double latencyMillis(double percentile) {
+        return latencies.percentile(percentile) / 1000.0;
+    }
+
+    public Path resultsFile() {
+        return resultsFile;
+    }
+
+    @Override
+    public void close() {
+        synchronized (writer) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.net.ssl.SSLSession;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class FixtureStore implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(FixtureStore.class);
+    private static final boolean COMPRESSION_ENABLED = Config.getBoolean("http.compression", false);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private static final String SEED = "seed";
+
+    public enum Mode {
+        LIVE, RECORD, REPLAY
+    }
+
+    private final Mode mode;
+    private final Path file;
+    private final Map<String, Fixture> fixtures = new ConcurrentHashMap<>();
+    private BufferedWriter writer;
+
+    public FixtureStore(Mode mode, Path file) {
+        this.mode = mode;
+        this.file = file;
+        if (mode == Mode.REPLAY) {
+            load();
+        }
+    }
+
+    public static FixtureStore fromConfig() {
+        Mode mode = configuredMode();
+        Path file = mode == Mode.RECORD ? TestRunner.shardOutput(configuredFile()) : configuredFile();
+        return new FixtureStore(mode, file);
+    }
+
+    public static OptionalLong recordedSeed() {
+        Path file = configuredFile();
+        if (configuredMode() != Mode.REPLAY || !Files.exists(file)) {
+            return OptionalLong.empty();
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            JsonNode seed = line == null || line.isBlank() ? null : OBJECT_MAPPER.readTree(line).get(SEED);
+            if (seed == null) {
+                logger.warn("Fixture store {} holds no data seed, generated request bodies will not match their "
+                        + "fixtures unless -Ddata.seed is the seed of the recording", file);
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of(seed.asLong());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Mode configuredMode() {
+        return Mode.valueOf(Config.get("http.mode", "live").toUpperCase());
+    }
+
+    private static Path configuredFile() {
+        return Paths.get(Config.get("http.fixtures", "src/test/resources/fixtures/http-fixtures.jsonl"));
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public String key(String method, String endpoint, URI uri, RequestBody body) {
+        String query = uri.getRawQuery() == null ? "" : String.join("&",
+                Arrays.stream(uri.getRawQuery().split("&")).sorted().toList());
+        return method + " " + endpoint + "?" + query + "#" + hash(body);
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> replay(String key, HttpRequest request,
+                                                         HttpResponse.BodyHandler<T> bodyHandler) {
+        Fixture fixture = fixtures.get(key);
+        if (fixture == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("no fixture recorded for " + key));
+        }
+
+        HttpHeaders headers = HttpHeaders.of(fixture.headers(), (name, value) -> true);
+        HttpResponse.ResponseInfo responseInfo = new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return fixture.status();
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+
+        HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(responseInfo);
+        subscriber.onSubscribe(new ReplaySubscription(subscriber, fixture.bytes()));
+        return subscriber.getBody().toCompletableFuture()
+                .thenApply(body -> new ReplayedResponse<>(fixture.status(), headers, body, request));
+    }
+
+    public synchronized void record(String key, ApiResponse response) {
+        Map<String, List<String>> headers = new TreeMap<>();
+        boolean decoded = COMPRESSION_ENABLED
+                && InflatingBodySubscriber.supports(response.headers().firstValue("Content-Encoding").orElse(null));
+        response.headers().map().forEach((name, values) -> {
+            boolean encodingHeader = name.equalsIgnoreCase("Content-Encoding") || name.equalsIgnoreCase("Content-Length");
+            if (!name.startsWith(":") && !(decoded && encodingHeader)) {
+                headers.put(name, values);
+            }
+        });
+        byte[] bytes = response.hasBody() ? response.bytes() : new byte[0];
+        String text = decodeUtf8(bytes);
+        Fixture fixture = new Fixture(key, response.statusCode(), headers,
+                text, text == null ? Base64.getEncoder().encodeToString(bytes) : null);
+        try {
+            if (writer == null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writer.write(OBJECT_MAPPER.writeValueAsString(Map.of(SEED, RegexGenerator.suiteSeed())));
+                writer.newLine();
+            }
+            writer.write(OBJECT_MAPPER.writeValueAsString(fixture));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        fixtures.put(key, fixture);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.error("Failed to close fixture store {}", file, e);
+            }
+            writer = null;
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            logger.warn("Fixture store {} does not exist, every request will fail in replay mode", file);
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = OBJECT_MAPPER.readTree(line);
+                if (!node.has(SEED)) {
+                    Fixture fixture = OBJECT_MAPPER.treeToValue(node, Fixture.class);
+                    fixtures.put(fixture.key(), fixture);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.debug("Loaded {} fixtures from {}", fixtures.size(), file);
+    }
+
+    private static String hash(RequestBody body) {
+        if (body.isEmpty() || body.length() == 0) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            body.digest(digest);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String decodeUtf8(byte[] bytes) {
+        try {
+            return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    private record Fixture(String key, int status, Map<String, List<String>> headers,
+                           String body, String bodyBase64) {
+        byte[] bytes() {
+            if (bodyBase64 != null) {
+                return Base64.getDecoder().decode(bodyBase64);
+            }
+            return body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class ReplaySubscription implements Flow.Subscription {
+        private final HttpResponse.BodySubscriber<?> subscriber;
+        private final byte[] bytes;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private ReplaySubscription(HttpResponse.BodySubscriber<?> subscriber, byte[] bytes) {
+            this.subscriber = subscriber;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n > 0 && done.compareAndSet(false, true)) {
+                if (bytes.length > 0) {
+                    subscriber.onNext(List.of(ByteBuffer.wrap(bytes)));
+                }
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            done.set(true);
+        }
+    }
+
+    private record ReplayedResponse<T>(int statusCode, HttpHeaders headers, T body,
+                                       HttpRequest request) implements HttpResponse<T> {
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package api;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+public final class FlightEvents {
+    private FlightEvents() {
+    }
+
+    @Name("firegate.HttpExchange")
+    @Label("HTTP Exchange")
+    @Description("One attempt of an AsyncRestClient request, from send until the response completed or failed")
+    @Category({"FireGate", "HTTP"})
+    @StackTrace(false)
+    public static final class HttpExchange extends Event {
+        @Label("Method")
+        public String method;
+
+        @Label("Endpoint")
+        @Description("URL before path parameters were substituted")
+        public String endpoint;
+
+        @Label("Status Code")
+        public int statusCode;
+
+        @Label("Request Bytes")
+        @DataAmount
+        public long requestBytes;
+
+        @Label("Response Bytes")
+        @DataAmount
+        public long responseBytes;
+
+        @Label("Decoded Response Bytes")
+        @DataAmount
+        public long decodedResponseBytes;
+
+        @Label("Error")
+        public String error;
+    }
+
+    @Name("firegate.Step")
+    @Label("Cucumber Step")
+    @Category({"FireGate", "Cucumber"})
+    @StackTrace(false)
+    public static final class Step extends Event {
+        @Label("Scenario")
+        public String scenario;
+
+        @Label("Step")
+        public String step;
+
+        @Label("Location")
+        public String location;
+
+        @Label("Status")
+        public String status;
+    }
+
+    @Name("firegate.SchemaValidation")
+    @Label("Schema Validation")
+    @Category({"FireGate", "Validation"})
+    @StackTrace(false)
+    public static final class SchemaValidation extends Event {
+        @Label("Schema")
+        public String schema;
+
+        @Label("Errors")
+        public int errors;
+    }
+
+    @Name("firegate.PathExtraction")
+    @Label("Path Extraction")
+    @Category({"FireGate", "Validation"})
+    @StackTrace(false)
+    public static final class PathExtraction extends Event {
+        @Label("Paths")
+        @Description("Path expression, or the number of paths of a single-pass extraction")
+        public String paths;
+
+        @Label("Matches")
+        public int matches;
+    }
+}
@@ -0,0 +1,55 @@
+package api;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+public final class FlightRecording {
+    private static final Logger logger = LogManager.getLogger(FlightRecording.class);
+    private static Recording recording;
+
+    private FlightRecording() {
+    }
+
+    public static synchronized void start(String settings, Path destination) {
+        if (recording != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(destination.toAbsolutePath().getParent());
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            started.setName("firegate");
+            started.setToDisk(true);
+            started.setDestination(destination);
+            started.enable(FlightEvents.HttpExchange.class);
+            started.enable(FlightEvents.Step.class);
+            started.enable(FlightEvents.SchemaValidation.class);
+            started.enable(FlightEvents.PathExtraction.class);
+            started.start();
+            recording = started;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("invalid flight recorder settings: " + settings, e);
+        }
+        logger.info("Flight recording to {}", destination);
+    }
+
+    public static synchronized void stop() {
+        if (recording == null) {
+            return;
+        }
+        Path destination = recording.getDestination();
+        recording.stop();
+        recording.close();
+        recording = null;
+        logger.info("Flight recording written to {}", destination);
+    }
+}
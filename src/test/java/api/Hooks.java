@@ -1,26 +1,74 @@
 package api;
 
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
 import io.cucumber.java.Before;
+import io.cucumber.java.BeforeAll;
+import io.cucumber.java.Scenario;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class Hooks {
+    private static final Logger logger = LogManager.getLogger(Hooks.class);
     private final Context context;
 
     public Hooks(Context context) {
         this.context = context;
     }
 
+    @BeforeAll
+    public static void beforeAll() {
+        if (Config.getBoolean("jfr.record", false)) {
+            FlightRecording.start(Config.get("jfr.settings", "profile"),
+                    TestRunner.shardOutput(Paths.get(Config.get("jfr.file", "target/firegate.jfr"))));
+        }
+        boolean preloadSchemas = Config.getBoolean("schema.preload", false);
+        String schemaDirectory = Config.get("schema.directory", "src/test/resources/schemas");
+        CompletableFuture<Void> schemasLoaded = CompletableFuture.completedFuture(null);
+        if (Config.getBoolean("startup.warm-up", true)) {
+            schemasLoaded = StartupWarmUp.start(preloadSchemas, schemaDirectory);
+        } else if (preloadSchemas) {
+            SchemaValidator.preload(schemaDirectory);
+        }
+        AsyncRestClient.shared().warmUp();
+        try {
+            schemasLoaded.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to preload schemas from " + schemaDirectory, e.getCause());
+        }
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        AsyncRestClient.closeShared();
+        if (Config.getBoolean("metrics.enabled", true)) {
+            HttpMetrics.global().export(
+                    TestRunner.shardOutput(Paths.get(Config.get("metrics.directory", "target/metrics"))));
+        }
+        FlightRecording.stop();
+    }
+
     @Before
-    public void before() {
-        context.set("RestClient", new AsyncRestClient());
-        context.set("SchemaValidator", new SchemaValidator());
-        context.set("RegexGenerator", new RegexGenerator());
-        context.set("PathExtractor", new PathExtractor());
-        context.set("TypeConverter", new TypeConverter());
+    public void before(Scenario scenario) {
+        context.set(Context.SCENARIO_ID, scenario.getUri() + ":" + scenario.getLine());
     }
 
     @After
-    public void after() {
+    public void after(Scenario scenario) {
+        if (scenario.isFailed()) {
+            logger.warn("Scenario '{}' failed, reproduce its generated data with -Ddata.seed={}",
+                    scenario.getName(), RegexGenerator.suiteSeed());
+        }
         context.reset();
     }
 }
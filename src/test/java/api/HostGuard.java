@@ -0,0 +1,145 @@
+package api;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+final class HostGuard {
+    private static final Map<String, HostGuard> GUARDS = new ConcurrentHashMap<>();
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE");
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 502, 503, 504);
+
+    private final String host;
+    private final RateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+
+    private HostGuard(String host) {
+        this.host = host;
+        this.rateLimiter = new RateLimiter(
+                Double.parseDouble(setting("http.rate-per-second", host, "0")),
+                Integer.parseInt(setting("http.rate-burst", host, "1")));
+        this.circuitBreaker = new CircuitBreaker(
+                Integer.parseInt(setting("http.circuit.failure-threshold", host, "0")),
+                TimeUnit.MILLISECONDS.toNanos(Long.parseLong(setting("http.circuit.open-ms", host, "10000"))));
+        this.maxAttempts = Math.max(1, Integer.parseInt(setting("http.retry.max-attempts", host, "1")));
+        this.baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(setting("http.retry.base-delay-ms", host, "200")));
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(setting("http.retry.max-delay-ms", host, "5000")));
+    }
+
+    static HostGuard of(URI uri) {
+        String host = uri.getAuthority();
+        return GUARDS.computeIfAbsent(host == null ? "" : host, HostGuard::new);
+    }
+
+    <T> CompletableFuture<HttpResponse<T>> send(String method, Executor executor,
+                                                Supplier<CompletableFuture<HttpResponse<T>>> attempt,
+                                                Consumer<HttpResponse<T>> discard) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        send(1, IDEMPOTENT_METHODS.contains(method), executor, attempt, discard, result);
+        return result;
+    }
+
+    private <T> void send(int attemptNumber, boolean idempotent, Executor executor,
+                          Supplier<CompletableFuture<HttpResponse<T>>> attempt, Consumer<HttpResponse<T>> discard,
+                          CompletableFuture<HttpResponse<T>> result) {
+        if (!circuitBreaker.tryAcquire()) {
+            metrics().circuitRejected();
+            result.completeExceptionally(new IllegalStateException(
+                    "circuit breaker of " + host + " is open, failing fast"));
+            return;
+        }
+        long delay = rateLimiter.reserve();
+        if (delay > 0) {
+            metrics().throttled(delay);
+        }
+        after(delay, executor).execute(() -> attempt(attempt).whenComplete((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            boolean failed = cause != null || response.statusCode() >= 500;
+            if (circuitBreaker.record(!failed)) {
+                metrics().circuitOpened();
+            }
+            long retryAfter = response != null ? retryAfterNanos(response) : -1;
+            if (retryAfter > 0) {
+                rateLimiter.pauseFor(retryAfter);
+            }
+
+            boolean retryable = cause instanceof IOException
+                    || (response != null && RETRYABLE_STATUSES.contains(response.statusCode()));
+            if (idempotent && retryable && attemptNumber < maxAttempts) {
+                long backoff = backoffNanos(attemptNumber);
+                if (response != null) {
+                    discard.accept(response);
+                }
+                metrics().retried(backoff);
+                after(backoff, executor).execute(() -> send(attemptNumber + 1, true, executor, attempt, discard,
+                        result));
+            } else if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(response);
+            }
+        }));
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> attempt(Supplier<CompletableFuture<HttpResponse<T>>> attempt) {
+        try {
+            return attempt.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HttpMetrics.HostMetrics metrics() {
+        return HttpMetrics.global().host(host);
+    }
+
+    private long backoffNanos(int attemptNumber) {
+        long ceiling = Math.min(maxDelayNanos, baseDelayNanos << Math.min(attemptNumber - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static long retryAfterNanos(HttpResponse<?> response) {
+        if (response.statusCode() != 429 && response.statusCode() != 503) {
+            return -1;
+        }
+        String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime until = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Duration.between(ZonedDateTime.now(until.getZone()), until).toNanos();
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+
+    private static Executor after(long delayNanos, Executor executor) {
+        return delayNanos > 0 ? CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, executor) : Runnable::run;
+    }
+
+    private static String setting(String key, String host, String defaultValue) {
+        return Config.get(key + "@" + host, Config.get(key, defaultValue));
+    }
+}
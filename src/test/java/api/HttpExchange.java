@@ -0,0 +1,12 @@
+package api;
+
+public record HttpExchange(
+        String method,
+        String endpoint,
+        int statusCode,
+        long requestBytes,
+        long responseBytes,
+        long decodedResponseBytes,
+        long timeToHeadersNanos,
+        long totalNanos) {
+}
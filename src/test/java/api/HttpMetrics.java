@@ -0,0 +1,307 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public final class HttpMetrics {
+    private static final Logger logger = LogManager.getLogger(HttpMetrics.class);
+    private static final ObjectWriter PRETTY_WRITER = Json.mapper().writerWithDefaultPrettyPrinter();
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+    private static final HttpMetrics GLOBAL = new HttpMetrics();
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+    private volatile CacheMetrics cache = new CacheMetrics();
+
+    public static HttpMetrics global() {
+        return GLOBAL;
+    }
+
+    public void record(HttpExchange exchange) {
+        endpoints.computeIfAbsent(exchange.method() + " " + exchange.endpoint(),
+                        key -> new EndpointMetrics(exchange.method(), exchange.endpoint()))
+                .record(exchange);
+    }
+
+    public HostMetrics host(String host) {
+        return hosts.computeIfAbsent(host, HostMetrics::new);
+    }
+
+    public CacheMetrics cache() {
+        return cache;
+    }
+
+    public void export(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve("http-metrics.json"), toJson());
+            Files.writeString(directory.resolve("http-metrics.prom"), toPrometheus());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.debug("Exported metrics of {} endpoints to {}", endpoints.size(), directory);
+    }
+
+    public String toJson() {
+        ObjectNode root = Json.mapper().createObjectNode();
+        ArrayNode array = root.putArray("endpoints");
+        sorted().values().forEach(metrics -> {
+            ObjectNode node = array.addObject();
+            node.put("method", metrics.method);
+            node.put("endpoint", metrics.endpoint);
+            node.put("count", metrics.total.count());
+            ObjectNode statuses = node.putObject("statuses");
+            new TreeMap<>(metrics.statuses).forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+            node.put("requestBytes", metrics.requestBytes.sum());
+            node.put("responseBytes", metrics.responseBytes.sum());
+            node.put("decodedResponseBytes", metrics.decodedResponseBytes.sum());
+            putLatencies(node.putObject("totalMs"), metrics.total);
+            putLatencies(node.putObject("timeToHeadersMs"), metrics.timeToHeaders);
+        });
+        ArrayNode hostArray = root.putArray("hosts");
+        new TreeMap<>(hosts).values().forEach(metrics -> {
+            ObjectNode node = hostArray.addObject();
+            node.put("host", metrics.host);
+            node.put("throttledMs", metrics.throttledNanos.sum() / 1e6);
+            node.put("retries", metrics.retries.sum());
+            node.put("backoffMs", metrics.backoffNanos.sum() / 1e6);
+            node.put("circuitOpened", metrics.circuitOpened.sum());
+            node.put("circuitRejections", metrics.circuitRejections.sum());
+        });
+        CacheMetrics cache = this.cache;
+        ObjectNode cacheNode = root.putObject("cache");
+        cacheNode.put("hits", cache.hits.sum());
+        cacheNode.put("misses", cache.misses.sum());
+        cacheNode.put("coalesced", cache.coalesced.sum());
+        cacheNode.put("revalidations", cache.revalidations.sum());
+        cacheNode.put("notModified", cache.notModified.sum());
+        cacheNode.put("evictions", cache.evictions.sum());
+        try {
+            return PRETTY_WRITER.writeValueAsString(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String toPrometheus() {
+        StringBuilder builder = new StringBuilder();
+        Map<String, EndpointMetrics> sorted = sorted();
+
+        builder.append("# HELP firegate_http_request_duration_seconds Total time of an HTTP exchange.\n")
+                .append("# TYPE firegate_http_request_duration_seconds summary\n");
+        sorted.values().forEach(metrics -> appendSummary(builder, "firegate_http_request_duration_seconds",
+                metrics, metrics.total));
+
+        builder.append("# HELP firegate_http_time_to_headers_seconds Time until the response headers arrived.\n")
+                .append("# TYPE firegate_http_time_to_headers_seconds summary\n");
+        sorted.values().forEach(metrics -> appendSummary(builder, "firegate_http_time_to_headers_seconds",
+                metrics, metrics.timeToHeaders));
+
+        builder.append("# HELP firegate_http_responses_total Responses by status code, 0 when the exchange failed.\n")
+                .append("# TYPE firegate_http_responses_total counter\n");
+        sorted.values().forEach(metrics -> new TreeMap<>(metrics.statuses).forEach((status, count) ->
+                builder.append("firegate_http_responses_total")
+                        .append(labels(metrics, ",status=\"" + status + "\""))
+                        .append(' ').append(count.sum()).append('\n')));
+
+        builder.append("# HELP firegate_http_request_bytes_total Request body bytes sent.\n")
+                .append("# TYPE firegate_http_request_bytes_total counter\n");
+        sorted.values().forEach(metrics -> builder.append("firegate_http_request_bytes_total")
+                .append(labels(metrics)).append(' ').append(metrics.requestBytes.sum()).append('\n'));
+
+        builder.append("# HELP firegate_http_response_bytes_total Response body bytes received.\n")
+                .append("# TYPE firegate_http_response_bytes_total counter\n");
+        sorted.values().forEach(metrics -> builder.append("firegate_http_response_bytes_total")
+                .append(labels(metrics)).append(' ').append(metrics.responseBytes.sum()).append('\n'));
+
+        builder.append("# HELP firegate_http_response_decoded_bytes_total Response body bytes after decompression.\n")
+                .append("# TYPE firegate_http_response_decoded_bytes_total counter\n");
+        sorted.values().forEach(metrics -> builder.append("firegate_http_response_decoded_bytes_total")
+                .append(labels(metrics)).append(' ').append(metrics.decodedResponseBytes.sum()).append('\n'));
+
+        Map<String, HostMetrics> sortedHosts = new TreeMap<>(hosts);
+        appendHostCounter(builder, sortedHosts, "firegate_http_throttled_seconds_total",
+                "Time requests waited for the rate limiter or a Retry-After.", metrics -> metrics.throttledNanos.sum() / 1e9);
+        appendHostCounter(builder, sortedHosts, "firegate_http_retries_total",
+                "Requests sent again after a failed attempt.", metrics -> metrics.retries.sum());
+        appendHostCounter(builder, sortedHosts, "firegate_http_retry_backoff_seconds_total",
+                "Time spent backing off between attempts.", metrics -> metrics.backoffNanos.sum() / 1e9);
+        appendHostCounter(builder, sortedHosts, "firegate_http_circuit_opened_total",
+                "Times the circuit breaker of a host opened.", metrics -> metrics.circuitOpened.sum());
+        appendHostCounter(builder, sortedHosts, "firegate_http_circuit_rejections_total",
+                "Requests failed fast while the circuit of a host was open.", metrics -> metrics.circuitRejections.sum());
+
+        CacheMetrics cache = this.cache;
+        builder.append("# HELP firegate_http_cache_requests_total Cacheable requests by how the response cache served them.\n")
+                .append("# TYPE firegate_http_cache_requests_total counter\n")
+                .append("firegate_http_cache_requests_total{result=\"hit\"} ").append(cache.hits.sum()).append('\n')
+                .append("firegate_http_cache_requests_total{result=\"miss\"} ").append(cache.misses.sum()).append('\n')
+                .append("firegate_http_cache_requests_total{result=\"coalesced\"} ").append(cache.coalesced.sum()).append('\n')
+                .append("firegate_http_cache_requests_total{result=\"not_modified\"} ").append(cache.notModified.sum()).append('\n');
+        builder.append("# HELP firegate_http_cache_revalidations_total Conditional requests sent for stale cache entries.\n")
+                .append("# TYPE firegate_http_cache_revalidations_total counter\n")
+                .append("firegate_http_cache_revalidations_total ").append(cache.revalidations.sum()).append('\n');
+        builder.append("# HELP firegate_http_cache_evictions_total Cache entries evicted as least recently used.\n")
+                .append("# TYPE firegate_http_cache_evictions_total counter\n")
+                .append("firegate_http_cache_evictions_total ").append(cache.evictions.sum()).append('\n');
+        return builder.toString();
+    }
+
+    public void reset() {
+        endpoints.clear();
+        hosts.clear();
+        cache = new CacheMetrics();
+    }
+
+    private Map<String, EndpointMetrics> sorted() {
+        return new TreeMap<>(endpoints);
+    }
+
+    private static void putLatencies(ObjectNode node, LatencyHistogram histogram) {
+        node.put("mean", histogram.mean() / 1000.0);
+        for (double percentile : PERCENTILES) {
+            node.put("p" + formatPercentile(percentile), histogram.percentile(percentile) / 1000.0);
+        }
+        node.put("max", histogram.max() / 1000.0);
+    }
+
+    private static void appendSummary(StringBuilder builder, String name,
+                                      EndpointMetrics metrics, LatencyHistogram histogram) {
+        for (double percentile : PERCENTILES) {
+            builder.append(name).append(labels(metrics, ",quantile=\"" + BigDecimal.valueOf(percentile).movePointLeft(2).stripTrailingZeros().toPlainString() + "\""))
+                    .append(' ').append(histogram.percentile(percentile) / 1e6).append('\n');
+        }
+        String labels = labels(metrics);
+        builder.append(name).append("_sum").append(labels).append(' ').append(histogram.sum() / 1e6).append('\n');
+        builder.append(name).append("_count").append(labels).append(' ').append(histogram.count()).append('\n');
+    }
+
+    private static void appendHostCounter(StringBuilder builder, Map<String, HostMetrics> hosts, String name,
+                                          String help, Function<HostMetrics, Number> value) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" counter\n");
+        hosts.values().forEach(metrics -> builder.append(name).append("{host=\"").append(escape(metrics.host))
+                .append("\"} ").append(value.apply(metrics)).append('\n'));
+    }
+
+    private static String labels(EndpointMetrics metrics) {
+        return labels(metrics, "");
+    }
+
+    private static String labels(EndpointMetrics metrics, String extra) {
+        return "{method=\"" + escape(metrics.method) + "\",endpoint=\"" + escape(metrics.endpoint) + "\"" + extra + "}";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+
+    private static final class EndpointMetrics {
+        private final String method;
+        private final String endpoint;
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram timeToHeaders = new LatencyHistogram();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder decodedResponseBytes = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        private EndpointMetrics(String method, String endpoint) {
+            this.method = method;
+            this.endpoint = endpoint;
+        }
+
+        private void record(HttpExchange exchange) {
+            total.record(TimeUnit.NANOSECONDS.toMicros(exchange.totalNanos()));
+            if (exchange.timeToHeadersNanos() >= 0) {
+                timeToHeaders.record(TimeUnit.NANOSECONDS.toMicros(exchange.timeToHeadersNanos()));
+            }
+            requestBytes.add(Math.max(0, exchange.requestBytes()));
+            responseBytes.add(Math.max(0, exchange.responseBytes()));
+            decodedResponseBytes.add(Math.max(0, exchange.decodedResponseBytes()));
+            statuses.computeIfAbsent(exchange.statusCode(), status -> new LongAdder()).increment();
+        }
+    }
+
+    public static final class HostMetrics {
+        private final String host;
+        private final LongAdder throttledNanos = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder backoffNanos = new LongAdder();
+        private final LongAdder circuitOpened = new LongAdder();
+        private final LongAdder circuitRejections = new LongAdder();
+
+        private HostMetrics(String host) {
+            this.host = host;
+        }
+
+        public void throttled(long nanos) {
+            throttledNanos.add(nanos);
+        }
+
+        public void retried(long backoffNanos) {
+            retries.increment();
+            this.backoffNanos.add(backoffNanos);
+        }
+
+        public void circuitOpened() {
+            circuitOpened.increment();
+        }
+
+        public void circuitRejected() {
+            circuitRejections.increment();
+        }
+    }
+
+    public static final class CacheMetrics {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder revalidations = new LongAdder();
+        private final LongAdder notModified = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public void hit() {
+            hits.increment();
+        }
+
+        public void miss() {
+            misses.increment();
+        }
+
+        public void coalesced() {
+            coalesced.increment();
+        }
+
+        public void revalidated() {
+            revalidations.increment();
+        }
+
+        public void notModified() {
+            notModified.increment();
+        }
+
+        public void evicted() {
+            evictions.increment();
+        }
+    }
+}
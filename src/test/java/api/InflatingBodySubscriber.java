@@ -0,0 +1,219 @@
+package api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+final class InflatingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final HttpResponse.BodySubscriber<T> downstream;
+    private final boolean gzip;
+    private final CRC32 crc = new CRC32();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private Inflater inflater;
+    private Flow.Subscription subscription;
+    private boolean failed;
+
+    private InflatingBodySubscriber(HttpResponse.BodySubscriber<T> downstream, boolean gzip) {
+        this.downstream = downstream;
+        this.gzip = gzip;
+    }
+
+    static boolean supports(String contentEncoding) {
+        return "gzip".equalsIgnoreCase(contentEncoding) || "deflate".equalsIgnoreCase(contentEncoding);
+    }
+
+    static <T> HttpResponse.BodySubscriber<T> of(String contentEncoding, HttpResponse.BodySubscriber<T> downstream) {
+        return new InflatingBodySubscriber<>(downstream, "gzip".equalsIgnoreCase(contentEncoding));
+    }
+
+    @Override
+    public CompletionStage<T> getBody() {
+        return downstream.getBody();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        downstream.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        if (failed) {
+            return;
+        }
+        List<ByteBuffer> decoded = new ArrayList<>();
+        try {
+            for (ByteBuffer item : items) {
+                decode(item, decoded);
+            }
+        } catch (IOException | DataFormatException e) {
+            fail(e);
+            return;
+        }
+        if (decoded.isEmpty()) {
+            subscription.request(1);
+        } else {
+            downstream.onNext(decoded);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        end();
+        downstream.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (failed) {
+            return;
+        }
+        try {
+            if (inflater == null && pending.size() == 0) {
+                downstream.onComplete();
+                return;
+            }
+            if (inflater == null || !inflater.finished()) {
+                throw new IOException("compressed response body ended before the end of its stream");
+            }
+            if (gzip) {
+                verifyTrailer();
+            }
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        end();
+        downstream.onComplete();
+    }
+
+    private void decode(ByteBuffer input, List<ByteBuffer> decoded) throws IOException, DataFormatException {
+        if (inflater == null) {
+            copy(input, pending);
+            int headerLength = gzip ? gzipHeaderLength(pending.toByteArray()) : zlibHeaderLength(pending.toByteArray());
+            if (headerLength < 0) {
+                return;
+            }
+            byte[] buffered = pending.toByteArray();
+            pending.reset();
+            inflater = new Inflater(gzip || headerLength == 0);
+            input = ByteBuffer.wrap(buffered, gzip ? headerLength : 0, buffered.length - (gzip ? headerLength : 0));
+        }
+        if (inflater.finished()) {
+            copy(input, pending);
+            return;
+        }
+        inflater.setInput(input);
+        while (!inflater.finished() && !inflater.needsInput()) {
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            int inflated = inflater.inflate(chunk);
+            if (inflated == 0 && inflater.needsDictionary()) {
+                throw new DataFormatException("deflate streams with a preset dictionary are not supported");
+            }
+            if (inflated > 0) {
+                chunk.flip();
+                if (gzip) {
+                    crc.update(chunk.duplicate());
+                }
+                decoded.add(chunk);
+            }
+        }
+        if (inflater.finished()) {
+            copy(input, pending);
+        }
+    }
+
+    private void verifyTrailer() throws IOException {
+        byte[] trailer = pending.toByteArray();
+        if (trailer.length < 8) {
+            throw new IOException("gzip response body is missing its trailer");
+        }
+        long expectedCrc = readInt(trailer, 0) & 0xffffffffL;
+        long expectedSize = readInt(trailer, 4) & 0xffffffffL;
+        if (expectedCrc != crc.getValue() || expectedSize != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new IOException("gzip response body failed its crc check");
+        }
+    }
+
+    private static int gzipHeaderLength(byte[] header) throws IOException {
+        if (header.length < 10) {
+            return -1;
+        }
+        if (((header[0] & 0xff) | (header[1] & 0xff) << 8) != GZIP_MAGIC || header[2] != 8) {
+            throw new IOException("response body is not in gzip format");
+        }
+        int flags = header[3] & 0xff;
+        int position = 10;
+        if ((flags & FEXTRA) != 0) {
+            if (header.length < position + 2) {
+                return -1;
+            }
+            position += 2 + ((header[position] & 0xff) | (header[position + 1] & 0xff) << 8);
+        }
+        for (int flag : new int[]{FNAME, FCOMMENT}) {
+            if ((flags & flag) != 0) {
+                while (position < header.length && header[position] != 0) {
+                    position++;
+                }
+                if (position >= header.length) {
+                    return -1;
+                }
+                position++;
+            }
+        }
+        if ((flags & FHCRC) != 0) {
+            position += 2;
+        }
+        return position <= header.length ? position : -1;
+    }
+
+    private static int zlibHeaderLength(byte[] header) {
+        if (header.length < 2) {
+            return -1;
+        }
+        int cmf = header[0] & 0xff;
+        int flg = header[1] & 0xff;
+        boolean zlib = (cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        return zlib ? 2 : 0;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8
+                | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    private static void copy(ByteBuffer input, ByteArrayOutputStream target) {
+        byte[] bytes = new byte[input.remaining()];
+        input.get(bytes);
+        target.writeBytes(bytes);
+    }
+
+    private void fail(Exception e) {
+        failed = true;
+        end();
+        subscription.cancel();
+        downstream.onError(e instanceof IOException ? e : new IOException(e.getMessage(), e));
+    }
+
+    private void end() {
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public final class Json {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Json() {
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+}
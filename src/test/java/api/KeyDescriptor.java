@@ -0,0 +1,47 @@
+package api;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class KeyDescriptor {
+    private static final Map<String, KeyDescriptor> CACHE = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final String type;
+    private final String[] path;
+
+    private KeyDescriptor(String key, String type) {
+        this.key = key;
+        this.type = type;
+        this.path = key.split("\\.");
+    }
+
+    public static KeyDescriptor compile(String descriptor) {
+        return CACHE.computeIfAbsent(descriptor, KeyDescriptor::parse);
+    }
+
+    private static KeyDescriptor parse(String descriptor) {
+        String[] parts = descriptor.split(":");
+        return new KeyDescriptor(parts[0], parts.length > 1 ? parts[1] : "string");
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public boolean isNested() {
+        return path.length > 1;
+    }
+
+    public int depth() {
+        return path.length;
+    }
+
+    public String segment(int index) {
+        return path[index];
+    }
+}
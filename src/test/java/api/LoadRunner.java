@@ -0,0 +1,82 @@
+package api;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+public class LoadRunner {
+    private static final Logger logger = LogManager.getLogger(LoadRunner.class);
+
+    public LoadReport run(int requests, int ratePerSecond, int concurrency,
+                          Supplier<CompletableFuture<ApiResponse>> request) {
+        if (requests <= 0 || ratePerSecond <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("requests, rate and concurrency must be positive");
+        }
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+
+        for (int i = 0; i < requests; i++) {
+            long intendedStart = start + i * interval;
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<ApiResponse> response;
+            try {
+                response = request.get();
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((result, error) -> {
+                latencies.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart));
+                if (error != null || result.statusCode() >= 400) {
+                    errors.increment();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquireUninterruptibly(concurrency);
+
+        LoadReport report = new LoadReport(requests, errors.sum(), System.nanoTime() - start, latencies);
+        logger.info("""
+                
+                ╔═══════════════════════════════════════════════════
+                ║ LOAD TEST REPORT
+                ╠═ Requests: {} ({} per second, concurrency {})
+                ╠═ Throughput: {} requests/s
+                ╠═ Error rate: {} %
+                ╠═ Latency (ms): p50={} p90={} p99={} p99.9={} max={}
+                ╚═══════════════════════════════════════════════════""",
+                requests, ratePerSecond, concurrency,
+                String.format("%.1f", report.throughput()),
+                String.format("%.2f", report.errorRate()),
+                report.latencyMillis(50), report.latencyMillis(90), report.latencyMillis(99),
+                report.latencyMillis(99.9), report.latencyMillis(100));
+        return report;
+    }
+
+    public record LoadReport(long requests, long errors, long elapsedNanos, LatencyHistogram latencies) {
+        public double throughput() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        public double errorRate() {
+            return requests == 0 ? 0 : errors * 100.0 / requests;
+        }
+
+        public double latencyMillis(double percentile) {
+            return latencies.percentile(percentile) / 1000.0;
+        }
+    }
+}
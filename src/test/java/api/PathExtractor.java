@@ -6,21 +6,55 @@ import org.apache.logging.log4j.Logger;
 import org.testng.Assert;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class PathExtractor {
     private static final Logger logger = LogManager.getLogger(PathExtractor.class);
-    private static final Pattern ARRAY_INDEX_PATTERN = Pattern.compile("(.+)\\[(\\d+)]");
+    private static final PathExtractor SHARED = new PathExtractor();
+
+    public static PathExtractor shared() {
+        return SHARED;
+    }
 
     public Object extractByPath(JsonNode root, String path, String key, String type) {
-        String effectivePath = path.startsWith("$.") ? path.substring(2) : path;
-        String[] pathParts = effectivePath.split("\\.");
+        FlightEvents.PathExtraction event = new FlightEvents.PathExtraction();
+        event.begin();
+        CompiledPath compiledPath = CompiledPath.compile(path);
+        List<JsonNode> nodes = resolve(root, compiledPath);
+        event.end();
+        if (event.shouldCommit()) {
+            event.paths = path;
+            event.matches = nodes.size();
+            event.commit();
+        }
+        return extract(compiledPath, nodes, key, type);
+    }
+
+    public List<JsonNode> resolve(JsonNode root, CompiledPath path) {
         List<JsonNode> nodes = new ArrayList<>();
+        traverse(root, path, 0, nodes, false);
+        return nodes;
+    }
 
-        traverse(root, pathParts, 0, nodes, false);
+    public Map<CompiledPath, List<JsonNode>> resolveAll(JsonNode root, Collection<CompiledPath> paths) {
+        FlightEvents.PathExtraction event = new FlightEvents.PathExtraction();
+        event.begin();
+        Map<CompiledPath, List<JsonNode>> results = new IdentityHashMap<>();
+        paths.forEach(path -> results.put(path, new ArrayList<>()));
+        walk(root, PathTrie.of(paths), false, results);
+        event.end();
+        if (event.shouldCommit()) {
+            event.paths = paths.size() + " paths";
+            event.matches = results.values().stream().mapToInt(List::size).sum();
+            event.commit();
+        }
+        return results;
+    }
+
+    public Object extract(CompiledPath path, List<JsonNode> nodes, String key, String type) {
         Object result = processResults(nodes, type);
         try {
             logger.debug("""
@@ -41,71 +75,100 @@ public class PathExtractor {
 
     private Object processResults(List<JsonNode> nodes, String type) {
         if (nodes.isEmpty()) return null;
-        TypeConverter typeConverter = new TypeConverter();
-        if (type.startsWith("list<") && type.endsWith(">")) {
-            return nodes.stream()
-                    .map(node -> typeConverter.convert(node.asText(), type.substring(5, type.length() - 1)))
-                    .collect(Collectors.toList());
-        }
-
-        if (nodes.size() > 1) {
+        TypeConverter.Converter converter = TypeConverter.resolve(type);
+        if (!converter.isMultiValued() && nodes.size() > 1) {
             logger.warn("multiple values found for single value path, using first value only");
         }
-        return typeConverter.convert(nodes.getFirst().asText(), type);
+        return converter.fromNodes(nodes);
     }
 
-    private void traverse(JsonNode node, String[] pathParts, int depth,
-                          List<JsonNode> results, boolean wildcardMode) {
-        if (node == null || depth >= pathParts.length) return;
+    void traverse(JsonNode node, CompiledPath path, int depth,
+                  List<JsonNode> results, boolean wildcardMode) {
+        if (node == null || depth >= path.length()) return;
 
-        String part = pathParts[depth];
-        boolean isLastPart = (depth == pathParts.length - 1);
+        CompiledPath.Segment segment = path.segment(depth);
+        boolean isLastPart = (depth == path.length() - 1);
 
-        Matcher arrayMatcher = ARRAY_INDEX_PATTERN.matcher(part);
-        if (arrayMatcher.matches()) {
-            handleArrayIndex(node, arrayMatcher.group(1),
-                    Integer.parseInt(arrayMatcher.group(2)),
-                    pathParts, depth, results, isLastPart);
+        if (segment.isIndexed()) {
+            handleArrayIndex(node, segment, path, depth, results, isLastPart);
             return;
         }
 
         if (!wildcardMode && node.isArray()) {
             wildcardMode = true;
             for (JsonNode child : node) {
-                traverse(child, pathParts, depth, results, wildcardMode);
+                traverse(child, path, depth, results, wildcardMode);
             }
             return;
         }
 
-        JsonNode nextNode = node.path(part);
+        JsonNode nextNode = node.path(segment.name());
         if (nextNode.isMissingNode()) return;
 
         if (isLastPart) {
             collectResults(nextNode, results);
         } else {
-            traverse(nextNode, pathParts, depth + 1, results, false);
+            traverse(nextNode, path, depth + 1, results, false);
         }
     }
 
-    private void handleArrayIndex(JsonNode node, String fieldName, int index,
-                                  String[] pathParts, int depth,
+    private void handleArrayIndex(JsonNode node, CompiledPath.Segment segment,
+                                  CompiledPath path, int depth,
                                   List<JsonNode> results, boolean isLastPart) {
-        JsonNode arrayNode = node.path(fieldName);
-        if (!arrayNode.isArray() || index >= arrayNode.size()) return;
+        JsonNode element = elementAt(node, segment);
+        if (element == null) return;
 
-        JsonNode element = arrayNode.get(index);
         if (isLastPart) {
             results.add(element);
         } else {
-            traverse(element, pathParts, depth + 1, results, false);
+            traverse(element, path, depth + 1, results, false);
+        }
+    }
+
+    private void walk(JsonNode node, PathTrie trie, boolean wildcardMode,
+                      Map<CompiledPath, List<JsonNode>> results) {
+        trie.indexed().forEach((segment, child) -> {
+            JsonNode element = elementAt(node, segment);
+            if (element == null) return;
+            child.terminals().forEach(path -> results.get(path).add(element));
+            if (child.hasChildren()) {
+                walk(element, child, false, results);
+            }
+        });
+
+        if (trie.fields().isEmpty()) return;
+
+        if (!wildcardMode && node.isArray()) {
+            for (JsonNode child : node) {
+                walkFields(child, trie, results);
+            }
+            return;
         }
+        walkFields(node, trie, results);
+    }
+
+    private void walkFields(JsonNode node, PathTrie trie, Map<CompiledPath, List<JsonNode>> results) {
+        trie.fields().forEach((name, child) -> {
+            JsonNode nextNode = node.path(name);
+            if (nextNode.isMissingNode()) return;
+            child.terminals().forEach(path -> collectResults(nextNode, results.get(path)));
+            if (child.hasChildren()) {
+                walk(nextNode, child, false, results);
+            }
+        });
+    }
+
+    private JsonNode elementAt(JsonNode node, CompiledPath.Segment segment) {
+        JsonNode arrayNode = node.path(segment.name());
+        if (!arrayNode.isArray() || segment.index() >= arrayNode.size()) return null;
+        return arrayNode.get(segment.index());
     }
 
-    private void collectResults(JsonNode node, List<JsonNode> results) {
+    void collectResults(JsonNode node, List<JsonNode> results) {
         if (node.isArray()) {
             node.forEach(results::add);
         } else {
             results.add(node);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class PathTrie {
+    private final Map<String, PathTrie> fields = new LinkedHashMap<>();
+    private final Map<CompiledPath.Segment, PathTrie> indexed = new LinkedHashMap<>();
+    private final List<CompiledPath> terminals = new ArrayList<>();
+
+    static PathTrie of(Collection<CompiledPath> paths) {
+        PathTrie root = new PathTrie();
+        for (CompiledPath path : paths) {
+            PathTrie node = root;
+            for (int depth = 0; depth < path.length(); depth++) {
+                CompiledPath.Segment segment = path.segment(depth);
+                node = segment.isIndexed()
+                        ? node.indexed.computeIfAbsent(segment, s -> new PathTrie())
+                        : node.fields.computeIfAbsent(segment.name(), s -> new PathTrie());
+            }
+            node.terminals.add(path);
+        }
+        return root;
+    }
+
+    Map<String, PathTrie> fields() {
+        return fields;
+    }
+
+    Map<CompiledPath.Segment, PathTrie> indexed() {
+        return indexed;
+    }
+
+    List<CompiledPath> terminals() {
+        return terminals;
+    }
+
+    boolean hasChildren() {
+        return !fields.isEmpty() || !indexed.isEmpty();
+    }
+}
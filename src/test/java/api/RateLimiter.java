@@ -0,0 +1,38 @@
+package api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class RateLimiter {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+    private final AtomicLong pausedUntil = new AtomicLong(System.nanoTime());
+
+    RateLimiter(double permitsPerSecond, int burst) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.burstNanos = intervalNanos * Math.max(0, burst - 1);
+    }
+
+    long reserve() {
+        long now = System.nanoTime();
+        long pause = Math.max(0, pausedUntil.get() - now);
+        if (intervalNanos == 0) {
+            return pause;
+        }
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long base = arrival - now > 0 ? arrival : now;
+            long delay = Math.max(Math.max(0, base - now - burstNanos), pause);
+            long next = Math.max(base - now, delay) + now + intervalNanos;
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return delay;
+            }
+        }
+    }
+
+    void pauseFor(long nanos) {
+        long until = System.nanoTime() + nanos;
+        pausedUntil.accumulateAndGet(until, (current, next) -> next - current > 0 ? next : current);
+    }
+}
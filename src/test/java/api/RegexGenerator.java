@@ -4,13 +4,72 @@ import com.github.curiousoddman.rgxgen.RgxGen;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class RegexGenerator {
     private static final Logger logger = LogManager.getLogger(RegexGenerator.class);
+    private static final Map<String, RgxGen> GENERATORS = new ConcurrentHashMap<>();
+    private static final Map<String, UniqueValuePool> UNIQUE_POOLS = new ConcurrentHashMap<>();
+    private static final Map<String, Set<String>> CLAIMED = new ConcurrentHashMap<>();
+    private static final TypeConverter TYPE_CONVERTER = TypeConverter.shared();
+    private static final long SUITE_SEED = Config.getLong("data.seed",
+            FixtureStore.recordedSeed().orElseGet(() -> new Random().nextLong()));
+
+    private final Random random;
+    private final Long uniqueSeed;
+    private final Map<String, Random> uniqueRandoms = new ConcurrentHashMap<>();
+
+    public RegexGenerator() {
+        this(new Random());
+    }
+
+    public RegexGenerator(Random random) {
+        this(random, null);
+    }
+
+    private RegexGenerator(Random random, Long uniqueSeed) {
+        this.random = random;
+        this.uniqueSeed = uniqueSeed;
+    }
+
+    public static RegexGenerator forScenario(String scenarioId) {
+        long seed = SUITE_SEED ^ (long) scenarioId.hashCode() * 0x9E3779B97F4A7C15L;
+        return new RegexGenerator(new Random(seed), seed);
+    }
+
+    public static long suiteSeed() {
+        return SUITE_SEED;
+    }
+
+    public static void prefill(String regex, int count) {
+        pool(regex, count);
+    }
 
     public Object generate(String regex, String type) {
-        RgxGen rgxGen = RgxGen.parse(regex);
-        String result = rgxGen.generate();
+        return log(regex, type, generator(regex).generate(random));
+    }
+
+    public Object generateUnique(String regex, String type) {
+        if (uniqueSeed == null) {
+            return log(regex, type, pool(regex, Config.getInt("data.unique.pool-size", 1024)).take());
+        }
+        Random uniqueRandom = uniqueRandoms.computeIfAbsent(regex, key -> new Random(uniqueSeed ^ key.hashCode()));
+        Set<String> claimed = claimed(regex);
+        synchronized (uniqueRandom) {
+            for (int duplicates = 0; duplicates < UniqueValuePool.MAX_CONSECUTIVE_DUPLICATES; duplicates++) {
+                String value = generator(regex).generate(uniqueRandom);
+                if (claimed.add(value)) {
+                    return log(regex, type, value);
+                }
+            }
+        }
+        throw new IllegalStateException("no more unique values can be generated for regex " + regex);
+    }
 
+    private Object log(String regex, String type, String result) {
         try {
             logger.debug("""
                     
@@ -23,6 +82,19 @@ public class RegexGenerator {
         } catch (Exception e) {
             logger.error("Failed to log request", e);
         }
-        return new TypeConverter().convert(result, type);
+        return TYPE_CONVERTER.convert(result, type);
+    }
+
+    private static RgxGen generator(String regex) {
+        return GENERATORS.computeIfAbsent(regex, RgxGen::parse);
+    }
+
+    private static UniqueValuePool pool(String regex, int capacity) {
+        return UNIQUE_POOLS.computeIfAbsent(regex, key -> new UniqueValuePool(key, generator(key),
+                new Random(SUITE_SEED ^ key.hashCode()), claimed(key), capacity));
+    }
+
+    private static Set<String> claimed(String regex) {
+        return CLAIMED.computeIfAbsent(regex, key -> ConcurrentHashMap.newKeySet());
     }
 }
@@ -0,0 +1,120 @@
+package api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public final class RequestBody {
+    private static final ObjectMapper OBJECT_MAPPER = Json.mapper();
+    private static final RequestBody EMPTY = new RequestBody(HttpRequest.BodyPublishers.noBody(), null, null, null);
+
+    private final HttpRequest.BodyPublisher publisher;
+    private final String contentType;
+    private final byte[] bytes;
+    private final Path file;
+
+    private RequestBody(HttpRequest.BodyPublisher publisher, String contentType, byte[] bytes, Path file) {
+        this.publisher = publisher;
+        this.contentType = contentType;
+        this.bytes = bytes;
+        this.file = file;
+    }
+
+    public static RequestBody of(Object body, Map<String, String> formParams) {
+        if (formParams != null && !formParams.isEmpty()) {
+            String formBody = formParams.entrySet().stream()
+                    .map(entry -> URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8) + "=" +
+                            URLEncoder.encode(String.valueOf(entry.getValue()), StandardCharsets.UTF_8))
+                    .collect(Collectors.joining("&"));
+            return ofBytes(formBody.getBytes(StandardCharsets.UTF_8), "application/x-www-form-urlencoded");
+        }
+        return of(body);
+    }
+
+    public static RequestBody of(Object body) {
+        if (body == null) {
+            return EMPTY;
+        }
+        if (body instanceof File file) {
+            return ofFile(file.toPath());
+        }
+        if (body instanceof Path path) {
+            return ofFile(path);
+        }
+        if (body instanceof byte[] bytes) {
+            return ofBytes(bytes, "application/octet-stream");
+        }
+        if (body instanceof CharSequence text) {
+            String trimmed = text.toString().strip();
+            boolean json = trimmed.startsWith("{") || trimmed.startsWith("[");
+            return ofBytes(text.toString().getBytes(StandardCharsets.UTF_8),
+                    json ? "application/json" : "text/plain; charset=UTF-8");
+        }
+        try {
+            return ofBytes(OBJECT_MAPPER.writeValueAsBytes(body), "application/json");
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize body of type " + body.getClass().getName(), e);
+        }
+    }
+
+    private static RequestBody ofBytes(byte[] bytes, String contentType) {
+        return new RequestBody(HttpRequest.BodyPublishers.ofByteArray(bytes), contentType, bytes, null);
+    }
+
+    private static RequestBody ofFile(Path file) {
+        try {
+            String contentType = file.toString().endsWith(".json") ? "application/json" : Files.probeContentType(file);
+            return new RequestBody(HttpRequest.BodyPublishers.ofFile(file),
+                    contentType != null ? contentType : "application/octet-stream", null, file);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException("body file does not exist: " + file, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public HttpRequest.BodyPublisher publisher() {
+        return publisher;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public long length() {
+        return publisher.contentLength();
+    }
+
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    public void digest(MessageDigest digest) {
+        if (bytes != null) {
+            digest.update(bytes);
+        } else if (file != null) {
+            try (InputStream stream = Files.newInputStream(file)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = stream.read(buffer)) > 0) {
+                    digest.update(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package api;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+final class ResponseCache {
+    private static final Set<String> CACHEABLE_METHODS = Set.of("GET", "HEAD");
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+    private final Map<String, Load> inFlight = new ConcurrentHashMap<>();
+
+    ResponseCache(int maxEntries, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    HttpMetrics.global().cache().evicted();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static ResponseCache fromConfig() {
+        if (!Config.getBoolean("http.cache.enabled", false)) {
+            return null;
+        }
+        return new ResponseCache(Config.getInt("http.cache.max-entries", 1000),
+                Config.getDuration("http.cache.ttl-ms", Duration.ofSeconds(60)));
+    }
+
+    static boolean isCacheable(String method, Map<String, String> headers, Object body,
+                               Map<String, String> formParams) {
+        if (!CACHEABLE_METHODS.contains(method) || body != null || (formParams != null && !formParams.isEmpty())) {
+            return false;
+        }
+        return headers == null || headers.keySet().stream().noneMatch(name ->
+                name.regionMatches(true, 0, "If-", 0, 3) || name.equalsIgnoreCase("Cache-Control"));
+    }
+
+    static boolean invalidates(String method) {
+        return !SAFE_METHODS.contains(method);
+    }
+
+    static String key(String method, URI uri, Map<String, String> headers) {
+        Map<String, String> sorted = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (headers != null) {
+            sorted.putAll(headers);
+        }
+        return method + " " + uri + " " + sorted;
+    }
+
+    CompletableFuture<ApiResponse> get(String key, URI uri,
+                                       Function<Map<String, String>, CompletableFuture<ApiResponse>> loader) {
+        HttpMetrics.CacheMetrics metrics = HttpMetrics.global().cache();
+        Entry entry = lookup(key);
+        if (entry != null && entry.isFresh(System.nanoTime())) {
+            metrics.hit();
+            return CompletableFuture.completedFuture(entry.response());
+        }
+        Load load = new Load(resource(uri));
+        Load pending = inFlight.putIfAbsent(key, load);
+        if (pending != null) {
+            metrics.coalesced();
+            return pending.promise;
+        }
+        CompletableFuture<ApiResponse> promise = load.promise;
+
+        Map<String, String> validators = entry != null ? entry.validators() : Map.of();
+        if (!validators.isEmpty()) {
+            metrics.revalidated();
+        }
+        CompletableFuture<ApiResponse> loaded;
+        try {
+            loaded = loader.apply(validators);
+        } catch (RuntimeException e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+        loaded.whenComplete((response, error) -> {
+            if (error != null) {
+                inFlight.remove(key, load);
+                promise.completeExceptionally(error);
+            } else if (response.statusCode() == 304 && !validators.isEmpty()) {
+                metrics.notModified();
+                store(key, load, new Entry(load.resource, entry.response(), expiresAt(response.headers()),
+                        entry.etag(), entry.lastModified()));
+                inFlight.remove(key, load);
+                promise.complete(entry.response());
+            } else {
+                metrics.miss();
+                store(key, load, response);
+                inFlight.remove(key, load);
+                promise.complete(response);
+            }
+        });
+        return promise;
+    }
+
+    synchronized void invalidate(URI uri) {
+        String resource = resource(uri);
+        entries.values().removeIf(entry -> entry.resource().equals(resource));
+        inFlight.forEach((key, load) -> {
+            if (load.resource.equals(resource)) {
+                load.invalidated = true;
+                inFlight.remove(key, load);
+            }
+        });
+    }
+
+    private synchronized Entry lookup(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(String key, Load load, Entry entry) {
+        if (!load.invalidated) {
+            entries.put(key, entry);
+        }
+    }
+
+    private void store(String key, Load load, ApiResponse response) {
+        if (response.statusCode() != 200 || cacheControl(response.headers()).contains("no-store")) {
+            return;
+        }
+        store(key, load, new Entry(load.resource, response, expiresAt(response.headers()),
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null)));
+    }
+
+    private long expiresAt(HttpHeaders headers) {
+        String cacheControl = cacheControl(headers);
+        long ttl = ttlNanos;
+        if (cacheControl.contains("no-cache")) {
+            ttl = 0;
+        } else {
+            int maxAge = cacheControl.indexOf("max-age=");
+            if (maxAge >= 0) {
+                int end = maxAge + 8;
+                while (end < cacheControl.length() && Character.isDigit(cacheControl.charAt(end))) {
+                    end++;
+                }
+                if (end > maxAge + 8) {
+                    ttl = TimeUnit.SECONDS.toNanos(Long.parseLong(cacheControl.substring(maxAge + 8, end)));
+                }
+            }
+        }
+        return System.nanoTime() + ttl;
+    }
+
+    private static String resource(URI uri) {
+        return uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+    }
+
+    private static String cacheControl(HttpHeaders headers) {
+        return String.join(",", headers.allValues("Cache-Control")).toLowerCase();
+    }
+
+    private static final class Load {
+        private final CompletableFuture<ApiResponse> promise = new CompletableFuture<>();
+        private final String resource;
+        private volatile boolean invalidated;
+
+        private Load(String resource) {
+            this.resource = resource;
+        }
+    }
+
+    private record Entry(String resource, ApiResponse response, long expiresAt, String etag, String lastModified) {
+        private boolean isFresh(long now) {
+            return now - expiresAt < 0;
+        }
+
+        private Map<String, String> validators() {
+            Map<String, String> validators = new LinkedHashMap<>();
+            if (etag != null) {
+                validators.put("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                validators.put("If-Modified-Since", lastModified);
+            }
+            return validators;
+        }
+    }
+}
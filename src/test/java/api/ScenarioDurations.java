@@ -0,0 +1,78 @@
+package api;
+
+import io.cucumber.testng.Pickle;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+public final class ScenarioDurations {
+    private static final Logger logger = LogManager.getLogger(ScenarioDurations.class);
+    private static final URI WORKING_DIRECTORY = Paths.get("").toAbsolutePath().toUri();
+
+    private final Map<String, Long> millis = new ConcurrentHashMap<>();
+
+    public static ScenarioDurations load(Path file) {
+        ScenarioDurations durations = new ScenarioDurations();
+        if (Files.isRegularFile(file)) {
+            try (Stream<String> lines = Files.lines(file)) {
+                lines.filter(line -> !line.isBlank() && !line.startsWith("#")).forEach(line -> {
+                    int tab = line.indexOf('\t');
+                    durations.millis.put(line.substring(tab + 1), Long.parseLong(line.substring(0, tab)));
+                });
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to read scenario durations from {}", file, e);
+            }
+        }
+        return durations;
+    }
+
+    public static String id(Pickle pickle) {
+        return id(pickle.getUri(), pickle.getLine());
+    }
+
+    public static String id(URI uri, int line) {
+        String location = "file".equals(uri.getScheme()) ? WORKING_DIRECTORY.relativize(uri).toString() : uri.toString();
+        return location + ":" + line;
+    }
+
+    public static String feature(String id) {
+        return id.substring(0, id.lastIndexOf(':'));
+    }
+
+    public void record(String id, long elapsedMillis) {
+        millis.put(id, elapsedMillis);
+    }
+
+    public void merge(ScenarioDurations latest) {
+        latest.millis.forEach((id, elapsed) -> millis.merge(id, elapsed, (previous, current) -> (previous + current) / 2));
+    }
+
+    public long estimate(String id, long unknown) {
+        return millis.getOrDefault(id, unknown);
+    }
+
+    public long average() {
+        return (long) millis.values().stream().mapToLong(Long::longValue).average().orElse(1000);
+    }
+
+    public void save(Path file) {
+        StringBuilder content = new StringBuilder("# milliseconds<TAB>scenario, used to balance shards\n");
+        new TreeMap<>(millis).forEach((id, elapsed) -> content.append(elapsed).append('\t').append(id).append('\n'));
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package api;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+public final class ScenarioScheduler {
+    private final Queue<Pickle> pending = new ConcurrentLinkedQueue<>();
+    private final Map<Pickle, CompletableFuture<Void>> results = new ConcurrentHashMap<>();
+    private final Consumer<Pickle> scenarioRunner;
+
+    private ScenarioScheduler(Consumer<Pickle> scenarioRunner) {
+        this.scenarioRunner = scenarioRunner;
+    }
+
+    public static ScenarioScheduler start(Object[][] scenarios, int maxConcurrency, Consumer<Pickle> scenarioRunner) {
+        ScenarioScheduler scheduler = new ScenarioScheduler(scenarioRunner);
+        for (Object[] scenario : scenarios) {
+            Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+            scheduler.results.put(pickle, new CompletableFuture<>());
+            scheduler.pending.add(pickle);
+        }
+        int workers = Math.min(maxConcurrency, scenarios.length);
+        for (int i = 0; i < workers; i++) {
+            Thread.ofVirtual().name("scenario-", i).start(scheduler::drain);
+        }
+        return scheduler;
+    }
+
+    public void await(Pickle pickle) throws Throwable {
+        try {
+            results.get(pickle).join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void drain() {
+        Pickle pickle;
+        while ((pickle = pending.poll()) != null) {
+            try {
+                scenarioRunner.accept(pickle);
+                results.get(pickle).complete(null);
+            } catch (Throwable t) {
+                results.get(pickle).completeExceptionally(t);
+            }
+        }
+    }
+}
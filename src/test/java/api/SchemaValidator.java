@@ -6,28 +6,98 @@ import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.SpecVersion;
 import com.networknt.schema.ValidationMessage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class SchemaValidator {
-    private final JsonSchemaFactory SCHEMA_FACTORY =
+    private static final Logger logger = LogManager.getLogger(SchemaValidator.class);
+    private static final JsonSchemaFactory SCHEMA_FACTORY =
             JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012);
-    private final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectMapper OBJECT_MAPPER = Json.mapper();
+    private static final Map<Path, CompiledSchema> SCHEMA_CACHE = new ConcurrentHashMap<>();
+    private static final SchemaValidator SHARED = new SchemaValidator();
+
+    public static SchemaValidator shared() {
+        return SHARED;
+    }
 
     public void validate(String json, String schemaPath) throws Exception {
-        try (InputStream schemaStream = Files.newInputStream(Paths.get(schemaPath))) {
-            JsonSchema schema = SCHEMA_FACTORY.getSchema(schemaStream);
-            JsonNode jsonNode = OBJECT_MAPPER.readTree(json);
+        validate(OBJECT_MAPPER.readTree(json), schemaPath);
+    }
+
+    public void validate(JsonNode jsonNode, String schemaPath) {
+        FlightEvents.SchemaValidation event = new FlightEvents.SchemaValidation();
+        event.begin();
+        JsonSchema schema = getSchema(Paths.get(schemaPath));
+
+        Set<ValidationMessage> errors = schema.validate(jsonNode);
+        event.end();
+        if (event.shouldCommit()) {
+            event.schema = schemaPath;
+            event.errors = errors.size();
+            event.commit();
+        }
 
-            Set<ValidationMessage> errors = schema.validate(jsonNode);
+        if (!errors.isEmpty()) {
+            throw new AssertionError(formatErrors(errors));
+        }
+    }
 
-            if (!errors.isEmpty()) {
-                throw new AssertionError(formatErrors(errors));
+    public static void preload(String directory) {
+        Path root = Paths.get(directory);
+        if (!Files.isDirectory(root)) {
+            logger.warn("Schema directory {} does not exist, nothing to preload", directory);
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(file -> file.toString().endsWith(".json"))
+                    .forEach(SchemaValidator::getSchema);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.debug("Preloaded {} schemas from {}", SCHEMA_CACHE.size(), directory);
+    }
+
+    static void warmUp(JsonNode sample) {
+        SCHEMA_FACTORY.getSchema("""
+                {"type":"object","required":["data"],"properties":{"data":{"type":"array"}}}""").validate(sample);
+    }
+
+    private static JsonSchema getSchema(Path schemaPath) {
+        Path key = schemaPath.toAbsolutePath().normalize();
+        try {
+            FileTime lastModified = Files.getLastModifiedTime(key);
+            CompiledSchema cached = SCHEMA_CACHE.get(key);
+            if (cached != null && cached.lastModified().equals(lastModified)) {
+                return cached.schema();
             }
+            return SCHEMA_CACHE.compute(key, (path, current) ->
+                    current != null && current.lastModified().equals(lastModified)
+                            ? current
+                            : compile(path, lastModified)).schema();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CompiledSchema compile(Path schemaPath, FileTime lastModified) {
+        try (InputStream schemaStream = Files.newInputStream(schemaPath)) {
+            return new CompiledSchema(lastModified, SCHEMA_FACTORY.getSchema(schemaStream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -38,4 +108,7 @@ public class SchemaValidator {
                                 e.getCode(), e.getMessage()))
                         .collect(Collectors.joining("\n"));
     }
-}
\ No newline at end of file
+
+    private record CompiledSchema(FileTime lastModified, JsonSchema schema) {
+    }
+}
@@ -0,0 +1,117 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public final class ShardReportMerger {
+    private static final Logger logger = LogManager.getLogger(ShardReportMerger.class);
+    private static final ObjectMapper OBJECT_MAPPER = Json.mapper();
+
+    private ShardReportMerger() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path shardDirectory = Paths.get(Config.get("shard.directory", "target/shards"));
+        Path durationsFile = Paths.get(Config.get("shard.durations", "src/test/resources/scenario-durations.tsv"));
+        Path report = Paths.get(Config.get("shard.report", "target/cucumber.json"));
+        merge(shardDirectory, durationsFile, report);
+        mergeTimings(shardDirectory, Paths.get(Config.get("timing.file", "target/step-timings.ndjson")),
+                Paths.get(Config.get("timing.summary", "target/step-timings-summary.txt")));
+        mergeFixtures(shardDirectory,
+                Paths.get(Config.get("http.fixtures", "src/test/resources/fixtures/http-fixtures.jsonl")));
+    }
+
+    public static void merge(Path shardDirectory, Path durationsFile, Path report) throws IOException {
+        List<Path> shards;
+        try (Stream<Path> children = Files.list(shardDirectory)) {
+            shards = children.filter(Files::isDirectory).sorted().toList();
+        }
+
+        ArrayNode features = OBJECT_MAPPER.createArrayNode();
+        ScenarioDurations durations = ScenarioDurations.load(durationsFile);
+        for (Path shard : shards) {
+            Path shardReport = shard.resolve("cucumber.json");
+            if (Files.isRegularFile(shardReport) && Files.size(shardReport) > 0) {
+                OBJECT_MAPPER.readTree(shardReport.toFile()).forEach(features::add);
+            }
+            durations.merge(ScenarioDurations.load(shard.resolve("scenario-durations.tsv")));
+        }
+
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        OBJECT_MAPPER.writeValue(report.toFile(), features);
+        durations.save(durationsFile);
+        logger.info("Merged {} features of {} shards into {}", features.size(), shards.size(), report);
+    }
+
+    public static void mergeTimings(Path shardDirectory, Path timingsFile, Path summary) throws IOException {
+        List<Path> shardTimings = shardFiles(shardDirectory, timingsFile.getFileName());
+        if (shardTimings.isEmpty()) {
+            return;
+        }
+
+        String baselineFile = Config.get("timing.baseline", "");
+        StepTimings baseline = baselineFile.isEmpty() ? null : StepTimings.load(Paths.get(baselineFile));
+        Files.createDirectories(timingsFile.toAbsolutePath().getParent());
+        try (OutputStream output = Files.newOutputStream(timingsFile)) {
+            for (Path shardTiming : shardTimings) {
+                Files.copy(shardTiming, output);
+            }
+        }
+        StepTimings.load(timingsFile, Config.getInt("timing.top", 10)).writeSummary(summary, baseline,
+                Config.getInt("timing.regression-percent", 20), Config.getLong("timing.regression-min-ms", 5));
+        logger.info("Merged the step timings of {} shards into {}", shardTimings.size(), timingsFile);
+    }
+
+    public static void mergeFixtures(Path shardDirectory, Path fixturesFile) throws IOException {
+        List<Path> shardFixtures = shardFiles(shardDirectory, fixturesFile.getFileName());
+        if (shardFixtures.isEmpty()) {
+            return;
+        }
+
+        String seedLine = null;
+        List<String> fixtures = new ArrayList<>();
+        for (Path shardFixture : shardFixtures) {
+            List<String> lines = Files.readAllLines(shardFixture, StandardCharsets.UTF_8);
+            if (lines.isEmpty()) {
+                continue;
+            }
+            if (seedLine != null && !seedLine.equals(lines.get(0))) {
+                throw new IllegalStateException("Shards recorded fixtures with different data seeds, "
+                        + "record sharded runs with a fixed -Ddata.seed");
+            }
+            seedLine = lines.get(0);
+            lines.subList(1, lines.size()).stream().filter(line -> !line.isBlank()).forEach(fixtures::add);
+        }
+        if (seedLine == null) {
+            return;
+        }
+
+        Files.createDirectories(fixturesFile.toAbsolutePath().getParent());
+        List<String> merged = new ArrayList<>(fixtures.size() + 1);
+        merged.add(seedLine);
+        merged.addAll(fixtures);
+        Files.write(fixturesFile, merged, StandardCharsets.UTF_8);
+        logger.info("Merged {} fixtures of {} shards into {}", fixtures.size(), shardFixtures.size(), fixturesFile);
+    }
+
+    private static List<Path> shardFiles(Path shardDirectory, Path fileName) throws IOException {
+        try (Stream<Path> children = Files.list(shardDirectory)) {
+            return children.filter(Files::isDirectory).sorted()
+                    .map(shard -> shard.resolve(fileName))
+                    .filter(Files::isRegularFile)
+                    .toList();
+        }
+    }
+}
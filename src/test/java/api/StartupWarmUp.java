@@ -0,0 +1,55 @@
+package api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+final class StartupWarmUp {
+    private static final Logger logger = LogManager.getLogger(StartupWarmUp.class);
+    private static final String SAMPLE = """
+            {"page":1,"data":[{"id":1,"email":"george.bluth@reqres.in","active":true,"score":1.5,"tags":["a"]}]}""";
+    private static final List<String> TYPES = List.of("string", "integer", "long", "double", "boolean", "decimal",
+            "list<string>", "list<integer>", "map<string>");
+
+    private StartupWarmUp() {
+    }
+
+    static CompletableFuture<Void> start(boolean preloadSchemas, String schemaDirectory) {
+        CompletableFuture<Void> schemasLoaded = new CompletableFuture<>();
+        Thread.ofPlatform().daemon().name("firegate-warm-up").start(() -> {
+            long start = System.nanoTime();
+            try {
+                if (preloadSchemas) {
+                    SchemaValidator.preload(schemaDirectory);
+                }
+                schemasLoaded.complete(null);
+            } catch (Throwable e) {
+                schemasLoaded.completeExceptionally(e);
+                return;
+            }
+            try {
+                run();
+                logger.debug("Warmed up in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Warm-up failed, the first scenarios pay for it instead", e);
+            }
+        });
+        return schemasLoaded;
+    }
+
+    private static void run() throws IOException {
+        JsonNode sample = Json.mapper().readTree(SAMPLE);
+        Json.mapper().writeValueAsBytes(Json.mapper().convertValue(sample, Map.class));
+        TYPES.forEach(TypeConverter::resolve);
+        PathExtractor.shared().extractByPath(sample, "$.data[0].email", "email", "string");
+        new RegexGenerator(new Random(0)).generate("[a-z0-9]{10}", "string");
+        SchemaValidator.warmUp(sample);
+    }
+}
@@ -0,0 +1,48 @@
+package api;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StepEventPlugin implements ConcurrentEventListener {
+    private final Map<UUID, FlightEvents.Step> running = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepStarted.class, this::started);
+        publisher.registerHandlerFor(TestStepFinished.class, this::finished);
+    }
+
+    private void started(TestStepStarted started) {
+        if (!(started.getTestStep() instanceof PickleStepTestStep)) {
+            return;
+        }
+        FlightEvents.Step event = new FlightEvents.Step();
+        if (event.isEnabled()) {
+            event.begin();
+            running.put(started.getTestStep().getId(), event);
+        }
+    }
+
+    private void finished(TestStepFinished finished) {
+        FlightEvents.Step event = running.remove(finished.getTestStep().getId());
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            PickleStepTestStep step = (PickleStepTestStep) finished.getTestStep();
+            event.scenario = finished.getTestCase().getName();
+            event.step = step.getStep().getKeyword() + step.getStep().getText();
+            event.location = finished.getTestCase().getUri() + ":" + step.getStep().getLine();
+            event.status = finished.getResult().getStatus().name();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StepTimingPlugin implements ConcurrentEventListener {
+    private static final Logger logger = LogManager.getLogger(StepTimingPlugin.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BATCH_SIZE = 256;
+
+    private final Path file = output("timing.file", "target/step-timings.ndjson");
+    private final BlockingQueue<StepTimings.Timing> queue =
+            new ArrayBlockingQueue<>(Config.getInt("timing.queue-size", 65536));
+    private final LongAdder dropped = new LongAdder();
+    private final StepTimings timings = new StepTimings(Config.getInt("timing.top", 10));
+    private final Thread writer = Thread.ofPlatform().daemon().name("step-timing-writer").unstarted(this::drain);
+    private StepTimings baseline;
+    private volatile boolean finished;
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::scenarioFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> runFinished());
+        String baselineFile = Config.get("timing.baseline", "");
+        if (!baselineFile.isEmpty()) {
+            baseline = StepTimings.load(Paths.get(baselineFile));
+        }
+        writer.start();
+    }
+
+    private void stepFinished(TestStepFinished finished) {
+        if (!(finished.getTestStep() instanceof PickleStepTestStep step)) {
+            return;
+        }
+        publish(new StepTimings.Timing(StepTimings.STEP,
+                ScenarioDurations.id(finished.getTestCase().getUri(), step.getStep().getLine()),
+                step.getStep().getKeyword() + step.getStep().getText(),
+                step.getPattern(),
+                finished.getResult().getStatus().name(),
+                finished.getResult().getDuration().toNanos()));
+    }
+
+    private void scenarioFinished(TestCaseFinished finished) {
+        publish(new StepTimings.Timing(StepTimings.SCENARIO,
+                ScenarioDurations.id(finished.getTestCase().getUri(), finished.getTestCase().getLocation().getLine()),
+                finished.getTestCase().getName(),
+                null,
+                finished.getResult().getStatus().name(),
+                finished.getResult().getDuration().toNanos()));
+    }
+
+    private void publish(StepTimings.Timing timing) {
+        timings.record(timing);
+        if (!queue.offer(timing)) {
+            dropped.increment();
+        }
+    }
+
+    private void runFinished() {
+        finished = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.sum() > 0) {
+            logger.warn("Dropped {} step timings because the writer of {} fell behind, raise timing.queue-size",
+                    dropped.sum(), file);
+        }
+        timings.writeSummary(output("timing.summary", "target/step-timings-summary.txt"), baseline,
+                Config.getInt("timing.regression-percent", 20),
+                Config.getLong("timing.regression-min-ms", 5));
+    }
+
+    private static Path output(String key, String defaultValue) {
+        return TestRunner.shardOutput(Paths.get(Config.get(key, defaultValue)));
+    }
+
+    private void drain() {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter output = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                 JsonGenerator generator = JSON_FACTORY.createGenerator(output).setRootValueSeparator(null)) {
+                List<StepTimings.Timing> batch = new ArrayList<>(BATCH_SIZE);
+                while (!finished || !queue.isEmpty()) {
+                    StepTimings.Timing first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    for (StepTimings.Timing timing : batch) {
+                        write(generator, timing);
+                    }
+                    generator.flush();
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write step timings to {}", file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void write(JsonGenerator generator, StepTimings.Timing timing) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", timing.type());
+        generator.writeStringField("id", timing.id());
+        generator.writeStringField("name", timing.name());
+        if (timing.pattern() != null) {
+            generator.writeStringField("pattern", timing.pattern());
+        }
+        generator.writeStringField("status", timing.status());
+        generator.writeNumberField("durationMs", timing.durationNanos() / 1e6);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
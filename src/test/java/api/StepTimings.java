@@ -0,0 +1,166 @@
+package api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public final class StepTimings {
+    public static final String STEP = "step";
+    public static final String SCENARIO = "scenario";
+    private static final String PASSED = "PASSED";
+
+    private static final Logger logger = LogManager.getLogger(StepTimings.class);
+    private static final ObjectMapper OBJECT_MAPPER = Json.mapper();
+    private static final Comparator<Timing> BY_DURATION = Comparator.comparingLong(Timing::durationNanos);
+
+    private final int top;
+    private final Map<String, LatencyHistogram> patterns = new ConcurrentHashMap<>();
+    private final PriorityQueue<Timing> slowestSteps = new PriorityQueue<>(BY_DURATION);
+    private final PriorityQueue<Timing> slowestScenarios = new PriorityQueue<>(BY_DURATION);
+
+    public StepTimings(int top) {
+        this.top = top;
+    }
+
+    public static StepTimings load(Path file) {
+        return load(file, 0);
+    }
+
+    public static StepTimings load(Path file, int top) {
+        StepTimings timings = new StepTimings(top);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = OBJECT_MAPPER.readTree(line);
+                timings.record(new Timing(node.path("type").asText(), node.path("id").asText(),
+                        node.path("name").asText(), node.path("pattern").asText(null), node.path("status").asText(),
+                        (long) (node.path("durationMs").asDouble() * 1e6)));
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read step timings from {}", file, e);
+        }
+        return timings;
+    }
+
+    public void record(Timing timing) {
+        if (STEP.equals(timing.type())) {
+            if (timing.pattern() != null && PASSED.equals(timing.status())) {
+                patterns.computeIfAbsent(timing.pattern(), pattern -> new LatencyHistogram())
+                        .record(TimeUnit.NANOSECONDS.toMicros(timing.durationNanos()));
+            }
+            keepSlowest(slowestSteps, timing);
+        } else {
+            keepSlowest(slowestScenarios, timing);
+        }
+    }
+
+    public void writeSummary(Path file, StepTimings baseline, int regressionPercent, long regressionMinMillis) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Step definitions by p95 (ms)\n");
+        builder.append(String.format("%8s %9s %9s %9s %9s %9s  %s%n", "count", "mean", "p50", "p95", "p99", "max",
+                "pattern"));
+        patterns.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> entry) ->
+                        entry.getValue().percentile(95)).reversed())
+                .forEach(entry -> {
+                    LatencyHistogram histogram = entry.getValue();
+                    builder.append(String.format("%8d %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n", histogram.count(),
+                            histogram.mean() / 1000.0, histogram.percentile(50) / 1000.0,
+                            histogram.percentile(95) / 1000.0, histogram.percentile(99) / 1000.0,
+                            histogram.max() / 1000.0, entry.getKey()));
+                });
+
+        builder.append("\nSlowest scenarios (ms)\n");
+        slowest(slowestScenarios).forEach(timing -> builder.append(String.format("%9.1f  %-8s %s  %s%n",
+                timing.durationNanos() / 1e6, timing.status(), timing.id(), timing.name())));
+        builder.append("\nSlowest steps (ms)\n");
+        slowest(slowestSteps).forEach(timing -> builder.append(String.format("%9.1f  %-8s %s  %s%n",
+                timing.durationNanos() / 1e6, timing.status(), timing.id(), timing.name())));
+
+        if (baseline != null) {
+            builder.append(String.format("%nStep definitions slower than the baseline by %d%% and %d ms at p50%n",
+                    regressionPercent, regressionMinMillis));
+            regressions(baseline, regressionPercent, regressionMinMillis).forEach(regression -> {
+                builder.append(regression).append('\n');
+                logger.warn("Step got slower: {}", regression);
+            });
+        }
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Wrote step timing summary to {}", file);
+    }
+
+    private List<String> regressions(StepTimings baseline, int regressionPercent, long regressionMinMillis) {
+        List<Regression> regressions = new ArrayList<>();
+        patterns.forEach((pattern, current) -> {
+            LatencyHistogram previous = baseline.patterns.get(pattern);
+            if (previous == null) {
+                return;
+            }
+            double before = previous.percentile(50) / 1000.0;
+            double after = current.percentile(50) / 1000.0;
+            if (after - before >= regressionMinMillis && after > before * (1 + regressionPercent / 100.0)) {
+                regressions.add(new Regression(pattern, before, after));
+            }
+        });
+        return regressions.stream()
+                .sorted(Comparator.comparingDouble((Regression regression) -> regression.after - regression.before)
+                        .reversed())
+                .map(Regression::toString)
+                .toList();
+    }
+
+    private void keepSlowest(PriorityQueue<Timing> slowest, Timing timing) {
+        if (top <= 0) {
+            return;
+        }
+        synchronized (slowest) {
+            if (slowest.size() < top) {
+                slowest.add(timing);
+            } else if (slowest.peek().durationNanos() < timing.durationNanos()) {
+                slowest.poll();
+                slowest.add(timing);
+            }
+        }
+    }
+
+    private static List<Timing> slowest(PriorityQueue<Timing> slowest) {
+        synchronized (slowest) {
+            return slowest.stream().sorted(BY_DURATION.reversed()).toList();
+        }
+    }
+
+    private record Regression(String pattern, double before, double after) {
+        @Override
+        public String toString() {
+            return String.format("%9.1f -> %9.1f  %+6.0f%%  %s", before, after,
+                    before > 0 ? (after - before) * 100 / before : 100.0, pattern);
+        }
+    }
+
+    public record Timing(String type, String id, String name, String pattern, String status, long durationNanos) {
+    }
+}
@@ -0,0 +1,146 @@
+package api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class StreamingPathExtractor {
+    private static final ObjectMapper OBJECT_MAPPER = Json.mapper();
+
+    private final PathExtractor pathExtractor = PathExtractor.shared();
+
+    public HttpResponse.BodyHandler<Supplier<Map<CompiledPath, List<JsonNode>>>> bodyHandler(
+            Collection<CompiledPath> paths) {
+        return responseInfo -> HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofInputStream(),
+                stream -> () -> resolveAll(stream, paths));
+    }
+
+    public Map<CompiledPath, List<JsonNode>> resolveAll(InputStream stream, Collection<CompiledPath> paths) {
+        Map<CompiledPath, List<JsonNode>> results = new IdentityHashMap<>();
+        List<Matcher> matchers = new ArrayList<>(paths.size());
+        for (CompiledPath path : paths) {
+            results.put(path, new ArrayList<>());
+            if (path.length() > 0) {
+                matchers.add(new Matcher(Kind.EVALUATE, path, 0, false));
+            }
+        }
+
+        try (InputStream input = stream; JsonParser parser = OBJECT_MAPPER.createParser(input)) {
+            if (parser.nextToken() != null) {
+                process(parser, matchers, results);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return results;
+    }
+
+    private void process(JsonParser parser, List<Matcher> matchers,
+                         Map<CompiledPath, List<JsonNode>> results) throws IOException {
+        if (matchers.isEmpty()) {
+            parser.skipChildren();
+            return;
+        }
+
+        if (matchers.stream().anyMatch(Matcher::captures)) {
+            JsonNode node = parser.readValueAsTree();
+            matchers.forEach(matcher -> applyToTree(node, matcher, results.get(matcher.path())));
+            return;
+        }
+
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                process(parser, fieldMatchers(matchers, name), results);
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                process(parser, elementMatchers(matchers, index++), results);
+            }
+        }
+    }
+
+    private List<Matcher> fieldMatchers(List<Matcher> matchers, String name) {
+        List<Matcher> next = new ArrayList<>();
+        for (Matcher matcher : matchers) {
+            if (matcher.kind() != Kind.EVALUATE) continue;
+            CompiledPath.Segment segment = matcher.segment();
+            if (!segment.name().equals(name)) continue;
+
+            if (segment.isIndexed()) {
+                next.add(new Matcher(Kind.PICK, matcher.path(), matcher.depth(), false));
+            } else if (matcher.isLast()) {
+                next.add(new Matcher(Kind.COLLECT, matcher.path(), matcher.depth(), false));
+            } else {
+                next.add(new Matcher(Kind.EVALUATE, matcher.path(), matcher.depth() + 1, false));
+            }
+        }
+        return next;
+    }
+
+    private List<Matcher> elementMatchers(List<Matcher> matchers, int index) {
+        List<Matcher> next = new ArrayList<>();
+        for (Matcher matcher : matchers) {
+            if (matcher.kind() == Kind.EVALUATE && !matcher.wildcardMode() && !matcher.segment().isIndexed()) {
+                next.add(new Matcher(Kind.EVALUATE, matcher.path(), matcher.depth(), true));
+            } else if (matcher.kind() == Kind.PICK && matcher.segment().index() == index) {
+                next.add(matcher.isLast()
+                        ? new Matcher(Kind.ADD, matcher.path(), matcher.depth(), false)
+                        : new Matcher(Kind.EVALUATE, matcher.path(), matcher.depth() + 1, false));
+            }
+        }
+        return next;
+    }
+
+    private void applyToTree(JsonNode node, Matcher matcher, List<JsonNode> results) {
+        switch (matcher.kind()) {
+            case EVALUATE -> pathExtractor.traverse(node, matcher.path(), matcher.depth(), results,
+                    matcher.wildcardMode());
+            case PICK -> {
+                int index = matcher.segment().index();
+                if (!node.isArray() || index >= node.size()) return;
+                if (matcher.isLast()) {
+                    results.add(node.get(index));
+                } else {
+                    pathExtractor.traverse(node.get(index), matcher.path(), matcher.depth() + 1, results, false);
+                }
+            }
+            case COLLECT -> pathExtractor.collectResults(node, results);
+            case ADD -> results.add(node);
+        }
+    }
+
+    private enum Kind {
+        EVALUATE, PICK, COLLECT, ADD
+    }
+
+    private record Matcher(Kind kind, CompiledPath path, int depth, boolean wildcardMode) {
+        CompiledPath.Segment segment() {
+            return path.segment(depth);
+        }
+
+        boolean isLast() {
+            return depth == path.length() - 1;
+        }
+
+        boolean captures() {
+            return kind == Kind.COLLECT || kind == Kind.ADD;
+        }
+    }
+}
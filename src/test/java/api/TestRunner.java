@@ -1,22 +1,93 @@
 package api;
 
-import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.testng.ITestContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 @CucumberOptions(
         features = "src/test/resources/features",
         glue = {"api", "definitions"},
         monochrome = true,
         plugin = {
-                "pretty", "html:target/cucumber-reports",
+                "pretty", "api.StepEventPlugin", "api.StepTimingPlugin",
         }
 
 )
-public class TestRunner extends AbstractTestNGCucumberTests {
-    @Override
+public class TestRunner {
+    private static final int SHARD_COUNT = Config.getInt("shard.count", 1);
+    private static final int SHARD_INDEX = Config.getInt("shard.index", 0);
+
+    private TestNGCucumberRunner cucumberRunner;
+    private Object[][] scenarios;
+    private ScenarioDurations durations;
+    private ScenarioScheduler scheduler;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUpClass(ITestContext context) {
+        cucumberRunner = new TestNGCucumberRunner(getClass(), key -> "cucumber.plugin".equals(key)
+                ? "json:" + shardDirectory().resolve("cucumber.json")
+                        + ", html:" + shardOutput(Paths.get("target/cucumber-reports"))
+                : context.getCurrentXmlTest().getParameter(key));
+        durations = new ScenarioDurations();
+        scenarios = FeatureShards.select(cucumberRunner.provideScenarios(), SHARD_COUNT, SHARD_INDEX,
+                ScenarioDurations.load(Paths.get(Config.get("shard.durations",
+                        "src/test/resources/scenario-durations.tsv"))));
+        if ("virtual".equals(Config.get("runner.mode", "platform"))) {
+            scheduler = ScenarioScheduler.start(scenarios, Config.getInt("runner.max-concurrency", 200), this::run);
+        }
+    }
+
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) throws Throwable {
+        if (scheduler != null) {
+            scheduler.await(pickleWrapper.getPickle());
+        } else {
+            run(pickleWrapper.getPickle());
+        }
+    }
+
     @DataProvider(parallel = true)
     public Object[][] scenarios() {
-        return super.scenarios();
+        return scenarios == null ? new Object[0][0] : scenarios;
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() {
+        if (cucumberRunner == null) {
+            return;
+        }
+        cucumberRunner.finish();
+        durations.save(shardDirectory().resolve("scenario-durations.tsv"));
+    }
+
+    private void run(Pickle pickle) {
+        long start = System.nanoTime();
+        try {
+            cucumberRunner.runScenario(pickle);
+        } finally {
+            durations.record(ScenarioDurations.id(pickle), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    static boolean isSharded() {
+        return SHARD_COUNT > 1;
+    }
+
+    public static Path shardOutput(Path path) {
+        return isSharded() ? shardDirectory().resolve(path.getFileName()) : path;
+    }
+
+    static Path shardDirectory() {
+        return Paths.get(Config.get("shard.directory", "target/shards"), "shard-" + SHARD_INDEX);
     }
-}
\ No newline at end of file
+}
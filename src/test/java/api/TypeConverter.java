@@ -1,22 +1,234 @@
 package api;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 public class TypeConverter {
+    private static final Map<String, Converter> CONVERTERS = new ConcurrentHashMap<>();
+    private static final ObjectMapper OBJECT_MAPPER = Json.mapper();
+    private static final TypeConverter SHARED = new TypeConverter();
+
+    public static TypeConverter shared() {
+        return SHARED;
+    }
+
     public Object convert(String value, String type) {
         if (value == null) return null;
+        return resolve(type).fromString(value);
+    }
 
-        return switch (type) {
-            case "string" -> value;
-            case "character" -> {
-                if (value.length() != 1)
-                    throw new IllegalArgumentException("character type requires single character");
-                yield value.charAt(0);
-            }
-            case "integer" -> Integer.valueOf(value);
-            case "long" -> Long.valueOf(value);
-            case "float" -> Float.valueOf(value);
-            case "double" -> Double.valueOf(value);
-            case "boolean" -> Boolean.valueOf(value);
+    public Object convert(JsonNode node, String type) {
+        if (node == null) return null;
+        return resolve(type).fromNode(node);
+    }
+
+    public static Converter resolve(String type) {
+        Converter converter = CONVERTERS.get(type);
+        if (converter == null) {
+            Converter parsed = parse(type);
+            converter = CONVERTERS.putIfAbsent(type, parsed);
+            return converter == null ? parsed : converter;
+        }
+        return converter;
+    }
+
+    public interface Converter {
+        Object fromString(String value);
+
+        Object fromNode(JsonNode node);
+
+        default boolean isMultiValued() {
+            return false;
+        }
+
+        default Object fromNodes(List<JsonNode> nodes) {
+            return fromNode(nodes.getFirst());
+        }
+    }
+
+    private static Converter parse(String type) {
+        String descriptor = type.trim();
+        if (descriptor.startsWith("list<") && descriptor.endsWith(">")) {
+            return new ListConverter(resolve(descriptor.substring(5, descriptor.length() - 1)));
+        }
+        if (descriptor.startsWith("map<") && descriptor.endsWith(">")) {
+            return new MapConverter(resolve(descriptor.substring(4, descriptor.length() - 1)));
+        }
+        return switch (descriptor) {
+            case "string" -> new ScalarConverter(value -> value, JsonNode::asText);
+            case "character" -> new ScalarConverter(TypeConverter::toCharacter, node -> toCharacter(node.asText()));
+            case "integer" -> new ScalarConverter(Integer::valueOf, TypeConverter::toInt);
+            case "long" -> new ScalarConverter(Long::valueOf, TypeConverter::toLong);
+            case "float" -> new ScalarConverter(Float::valueOf,
+                    node -> node.isNumber() ? node.floatValue() : Float.valueOf(node.asText()));
+            case "double" -> new ScalarConverter(Double::valueOf, TypeConverter::toDouble);
+            case "boolean" -> new ScalarConverter(Boolean::valueOf,
+                    node -> node.isBoolean() ? node.booleanValue() : Boolean.valueOf(node.asText()));
+            case "decimal" -> new ScalarConverter(BigDecimal::new,
+                    node -> node.isNumber() ? node.decimalValue() : new BigDecimal(node.asText()));
+            case "uuid" -> new ScalarConverter(UUID::fromString, node -> UUID.fromString(node.asText()));
+            case "date" -> new ScalarConverter(LocalDate::parse, node -> LocalDate.parse(node.asText()));
+            case "datetime" -> new ScalarConverter(TypeConverter::toDateTime, node -> toDateTime(node.asText()));
+            case "integer[]" -> new IntArrayConverter();
+            case "long[]" -> new LongArrayConverter();
+            case "double[]" -> new DoubleArrayConverter();
             default -> throw new IllegalArgumentException("unsupported type: " + type);
         };
     }
+
+    private static Character toCharacter(String value) {
+        if (value.length() != 1)
+            throw new IllegalArgumentException("character type requires single character");
+        return value.charAt(0);
+    }
+
+    private static int toInt(JsonNode node) {
+        return node.isIntegralNumber() && node.canConvertToInt() ? node.intValue() : Integer.parseInt(node.asText());
+    }
+
+    private static long toLong(JsonNode node) {
+        return node.isIntegralNumber() && node.canConvertToLong() ? node.longValue() : Long.parseLong(node.asText());
+    }
+
+    private static double toDouble(JsonNode node) {
+        return node.isNumber() ? node.doubleValue() : Double.parseDouble(node.asText());
+    }
+
+    private static Object toDateTime(String value) {
+        return DateTimeFormatter.ISO_DATE_TIME.parseBest(value, OffsetDateTime::from, LocalDateTime::from);
+    }
+
+    private static JsonNode readTree(String value) {
+        try {
+            return OBJECT_MAPPER.readTree(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<JsonNode> elements(JsonNode node) {
+        List<JsonNode> elements = new ArrayList<>(node.size());
+        node.forEach(elements::add);
+        return elements;
+    }
+
+    private record ScalarConverter(Function<String, Object> parser, Function<JsonNode, Object> reader)
+            implements Converter {
+        @Override
+        public Object fromString(String value) {
+            return parser.apply(value);
+        }
+
+        @Override
+        public Object fromNode(JsonNode node) {
+            return reader.apply(node);
+        }
+    }
+
+    private record ListConverter(Converter element) implements Converter {
+        @Override
+        public Object fromString(String value) {
+            return value.startsWith("[") ? fromNode(readTree(value)) : List.of(element.fromString(value));
+        }
+
+        @Override
+        public Object fromNode(JsonNode node) {
+            return node.isArray() ? fromNodes(elements(node)) : List.of(element.fromNode(node));
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return true;
+        }
+
+        @Override
+        public Object fromNodes(List<JsonNode> nodes) {
+            List<Object> values = new ArrayList<>(nodes.size());
+            for (JsonNode node : nodes) {
+                values.add(element.fromNode(node));
+            }
+            return values;
+        }
+    }
+
+    private record MapConverter(Converter value) implements Converter {
+        @Override
+        public Object fromString(String text) {
+            return fromNode(readTree(text));
+        }
+
+        @Override
+        public Object fromNode(JsonNode node) {
+            if (!node.isObject())
+                throw new IllegalArgumentException("map type requires a json object but was: " + node.getNodeType());
+            Map<String, Object> values = new LinkedHashMap<>();
+            node.fields().forEachRemaining(field -> values.put(field.getKey(), value.fromNode(field.getValue())));
+            return values;
+        }
+    }
+
+    private abstract static class ArrayConverter implements Converter {
+        @Override
+        public Object fromString(String value) {
+            return fromNode(readTree(value.startsWith("[") ? value : "[" + value + "]"));
+        }
+
+        @Override
+        public Object fromNode(JsonNode node) {
+            return fromNodes(node.isArray() ? elements(node) : List.of(node));
+        }
+
+        @Override
+        public boolean isMultiValued() {
+            return true;
+        }
+    }
+
+    private static final class IntArrayConverter extends ArrayConverter {
+        @Override
+        public Object fromNodes(List<JsonNode> nodes) {
+            int[] values = new int[nodes.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = toInt(nodes.get(i));
+            }
+            return values;
+        }
+    }
+
+    private static final class LongArrayConverter extends ArrayConverter {
+        @Override
+        public Object fromNodes(List<JsonNode> nodes) {
+            long[] values = new long[nodes.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = toLong(nodes.get(i));
+            }
+            return values;
+        }
+    }
+
+    private static final class DoubleArrayConverter extends ArrayConverter {
+        @Override
+        public Object fromNodes(List<JsonNode> nodes) {
+            double[] values = new double[nodes.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = toDouble(nodes.get(i));
+            }
+            return values;
+        }
+    }
 }
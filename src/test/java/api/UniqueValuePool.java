@@ -0,0 +1,65 @@
+package api;
+
+import com.github.curiousoddman.rgxgen.RgxGen;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+final class UniqueValuePool {
+    static final int MAX_CONSECUTIVE_DUPLICATES = 10_000;
+
+    private final String regex;
+    private final BlockingQueue<String> queue;
+    private final Set<String> seen;
+    private volatile boolean exhausted;
+
+    UniqueValuePool(String regex, RgxGen generator, Random random, Set<String> seen, int capacity) {
+        this.regex = regex;
+        this.seen = seen;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        Thread.ofVirtual().name("unique-pool-" + regex).start(() -> fill(generator, random));
+    }
+
+    String take() {
+        try {
+            while (true) {
+                String value = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (value != null) {
+                    return value;
+                }
+                if (exhausted && queue.isEmpty()) {
+                    throw new IllegalStateException("no more unique values can be generated for regex " + regex);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a unique value of " + regex, e);
+        }
+    }
+
+    int available() {
+        return queue.size();
+    }
+
+    private void fill(RgxGen generator, Random random) {
+        int duplicates = 0;
+        try {
+            while (duplicates < MAX_CONSECUTIVE_DUPLICATES) {
+                String value = generator.generate(random);
+                if (seen.add(value)) {
+                    duplicates = 0;
+                    queue.put(value);
+                } else {
+                    duplicates++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exhausted = true;
+        }
+    }
+}
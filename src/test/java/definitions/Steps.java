@@ -1,24 +1,33 @@
 package definitions;
 
 import api.*;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
+import org.testng.Assert;
 
+import java.lang.reflect.Array;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unchecked")
 public class Steps {
-    private final Pattern pattern = Pattern.compile("\\{(.+?)}");
+    private final StringBuilder renderBuffer = new StringBuilder();
     private final Context context;
 
     public Steps(Context context) {
@@ -27,145 +36,421 @@ public class Steps {
 
     @Given("set base url to {}")
     public void setBaseUrl(String baseUrl) {
-        context.set("baseUrl", baseUrl);
+        context.set(Context.BASE_URL, baseUrl);
     }
 
     @Given("set endpoint to {}")
     public void setEndpoint(String endpoint) {
-        context.set("endpoint", endpoint);
+        context.set(Context.ENDPOINT, endpoint);
     }
 
     @Given("add to headers")
     public void addToHeaders(Map<String, String> input) {
-        var existing = context.get("headers", Map.class);
-        var headers = new HashMap<String, Object>(existing != null ? existing : Map.of());
-        resolveParameterizedMapValues(input, headers);
-        context.set("headers", headers);
+        addTo(Context.HEADERS, input);
     }
 
     @Given("add to path parameters")
     public void addToPathParameters(Map<String, String> input) {
-        var existing = context.get("pathParameters", Map.class);
-        var pathParameters = new HashMap<String, Object>(existing != null ? existing : Map.of());
-        resolveParameterizedMapValues(input, pathParameters);
-        context.set("pathParameters", pathParameters);
+        addTo(Context.PATH_PARAMETERS, input);
     }
 
     @Given("add to form parameters")
     public void addToFormParameters(Map<String, String> input) {
-        var existing = context.get("formParameters", Map.class);
-        var formParameters = new HashMap<String, Object>(existing != null ? existing : Map.of());
-        resolveParameterizedMapValues(input, formParameters);
-        context.set("formParameters", formParameters);
+        addTo(Context.FORM_PARAMETERS, input);
     }
 
     @Given("add to query parameters")
     public void addToQueryParameters(Map<String, String> input) {
-        var existing = context.get("queryParameters", Map.class);
-        var queryParameters = new HashMap<String, Object>(existing != null ? existing : Map.of());
-        resolveParameterizedMapValues(input, queryParameters);
-        context.set("queryParameters", queryParameters);
+        addTo(Context.QUERY_PARAMETERS, input);
     }
 
     @Given("add to body")
     public void addToBody(Map<String, String> input) {
-        var existing = context.get("body", Map.class);
-        var body = new HashMap<String, Object>(existing != null ? existing : Map.of());
-        resolveParameterizedMapValues(input, body);
-        context.set("body", body);
+        var existing = context.get(Context.BODY) instanceof Map<?, ?> map ? map : Map.of();
+        var body = new LinkedHashMap<String, Object>((Map<String, Object>) existing);
+        resolveParameterizedMapValues(input, body, true);
+        context.set(Context.BODY, body);
+    }
+
+    @Given("set body from file {}")
+    public void setBodyFromFile(String file) {
+        Path path = Paths.get(file);
+        Assert.assertTrue(Files.isRegularFile(path), String.format("body file %s does not exist", file));
+        context.set(Context.BODY, path);
     }
 
     @Given("generate random values")
     public void generateRandomValues(Map<String, String> input) {
-        var params = input.entrySet().stream().collect(Collectors.toMap(
-                entry -> entry.getKey().toLowerCase(),
-                Map.Entry::getValue));
-        RegexGenerator generator = context.get("RegexGenerator", RegexGenerator.class);
-        params.forEach((k, v) -> {
-            String[] parts = k.split(":");
-            String key = parts[0];
-            String type = parts.length > 1 ? parts[1] : "string";
-            context.set(key, generator.generate(v, type));
-        });
+        RegexGenerator generator = context.get(Context.REGEX_GENERATOR);
+        generateValues(input, generator::generate);
+    }
+
+    @Given("generate unique random values")
+    public void generateUniqueRandomValues(Map<String, String> input) {
+        RegexGenerator generator = context.get(Context.REGEX_GENERATOR);
+        generateValues(input, generator::generateUnique);
     }
 
     @When("send a {} request")
     public void sendRequest(String method) {
-        method = method.toUpperCase();
-        String baseUrl = context.get("baseUrl", String.class);
-        var headers = context.get("headers", Map.class);
-        var pathParameters = context.get("pathParameters", Map.class);
-        var formParameters = context.get("formParameters", Map.class);
-        var queryParameters = context.get("queryParameters", Map.class);
-        String endpoint = context.get("endpoint", String.class);
-        Object body = context.get("body", Object.class);
-        AsyncRestClient restClient = context.get("RestClient", AsyncRestClient.class);
-        CompletableFuture<HttpResponse<String>> response = restClient.sendAsync(
-                method,
-                baseUrl + endpoint,
-                headers,
-                pathParameters,
-                queryParameters,
-                formParameters,
-                body
-        );
-        context.set("response", response);
+        context.set(Context.RESPONSE, send(method));
+    }
+
+    @When("send a {} request and stream values from response")
+    public void sendRequestStreamingValues(String method, Map<String, String> input) {
+        Map<CompiledPath, KeyDescriptor> paths = compilePaths(input);
+        StreamingPathExtractor streamingExtractor = new StreamingPathExtractor();
+        HttpResponse<Supplier<Map<CompiledPath, List<JsonNode>>>> response =
+                send(method, streamingExtractor.bodyHandler(paths.keySet())).join();
+        context.set(Context.RESPONSE, ApiResponse.withoutBody(response));
+        bindExtractedValues(paths, response.body().get());
+    }
+
+    @When("send a {word} request for each {word} in {word}")
+    public void sendRequestForEach(String method, String parameter, String listKey) {
+        sendRequestForEach(method, parameter, listKey, Config.getInt("fanout.max-in-flight", 10));
+    }
+
+    @When("send a {word} request for each {word} in {word} with at most {int} in flight")
+    public void sendRequestForEach(String method, String parameter, String listKey, Integer maxInFlight) {
+        List<?> values = listOf(context.get(listKey, Object.class));
+        Assert.assertNotNull(values, String.format("context has no list named %s", listKey));
+        boolean pathParameter = context.get(Context.ENDPOINT).contains("{" + parameter + "}");
+        Map<String, String> basePathParameters = context.get(Context.PATH_PARAMETERS);
+        Map<String, String> baseQueryParameters = context.get(Context.QUERY_PARAMETERS);
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<CompletableFuture<ApiResponse>> responses = new ArrayList<>(values.size());
+        for (Object value : values) {
+            var parameters = new HashMap<String, String>(
+                    pathParameter ? mapOrEmpty(basePathParameters) : mapOrEmpty(baseQueryParameters));
+            parameters.put(parameter, String.valueOf(value));
+            inFlight.acquireUninterruptibly();
+            responses.add(send(method,
+                    pathParameter ? parameters : basePathParameters,
+                    pathParameter ? baseQueryParameters : parameters)
+                    .whenComplete((response, error) -> inFlight.release()));
+        }
+        context.set(Context.RESPONSES, responses);
+    }
+
+    @When("send a {word} request for each row of {} expecting status {int}")
+    public void sendRequestForEachRow(String method, String file, Integer expectedStatusCode,
+                                      Map<String, String> body) {
+        sendRequestForEachRow(method, file, expectedStatusCode, Config.getInt("data.max-in-flight", 20), body);
+    }
+
+    @When("send a {word} request for each row of {} expecting status {int} with at most {int} in flight")
+    public void sendRequestForEachRow(String method, String file, Integer expectedStatusCode, Integer maxInFlight,
+                                      Map<String, String> body) {
+        Path path = Paths.get(file);
+        Assert.assertTrue(Files.isRegularFile(path), String.format("data file %s does not exist", file));
+        Map<String, String> basePathParameters = mapOrEmpty(context.get(Context.PATH_PARAMETERS));
+        Path feedDirectory = TestRunner.shardOutput(Paths.get(Config.get("data.feed.directory", "target/data-feeds")));
+        int feedNumber = context.get(Context.FEED_COUNT) == null ? 1 : context.get(Context.FEED_COUNT) + 1;
+        context.set(Context.FEED_COUNT, feedNumber);
+        FeedReport report = new FeedReport(feedDirectory.resolve(String.format("%s-%s-%d-results.jsonl",
+                path.getFileName(), scenarioFileName(), feedNumber)));
+        context.set(Context.FEED_REPORT, report);
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        try (report; DataFeeder feeder = DataFeeder.open(path)) {
+            long rowNumber = 0;
+            try {
+                while (feeder.hasNext()) {
+                    long row = ++rowNumber;
+                    Map<String, Object> values = feeder.next();
+                    var pathParameters = new HashMap<>(basePathParameters);
+                    values.forEach((k, v) -> pathParameters.put(k, String.valueOf(v)));
+                    Object rowBody = renderRow(body, values);
+
+                    inFlight.acquireUninterruptibly();
+                    long start = System.nanoTime();
+                    sendRow(method, pathParameters, rowBody).whenComplete((response, error) -> {
+                        try {
+                            int statusCode = response != null ? response.statusCode() : 0;
+                            report.record(row, statusCode, System.nanoTime() - start,
+                                    error == null && statusCode == expectedStatusCode,
+                                    error != null ? String.valueOf(error instanceof CompletionException
+                                            ? error.getCause() : error) : null);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } finally {
+                inFlight.acquireUninterruptibly(maxInFlight);
+            }
+        }
+    }
+
+    @Then("all rows should pass")
+    public void validateAllRowsPassed() {
+        FeedReport report = context.get(Context.FEED_REPORT);
+        Assert.assertEquals(report.failures(), 0, String.format("%d of %d rows failed, see %s",
+                report.failures(), report.rows(), report.resultsFile()));
+    }
+
+    @Then("row p{double} latency should be below {int} ms")
+    public void validateRowLatency(Double percentile, Integer maxMillis) {
+        FeedReport report = context.get(Context.FEED_REPORT);
+        double latency = report.latencyMillis(percentile);
+        Assert.assertTrue(latency < maxMillis,
+                String.format("p%s row latency %.1f ms is not below %d ms", percentile, latency, maxMillis));
+    }
+
+    @Then("all responses should have status code {int}")
+    public void validateStatusCodeOfAllResponses(Integer expectedStatusCode) {
+        List<ApiResponse> responses = responses();
+        for (int i = 0; i < responses.size(); i++) {
+            Assert.assertEquals(responses.get(i).statusCode(), (int) expectedStatusCode,
+                    String.format("unexpected status code of response %d (%s)", i, responses.get(i).uri()));
+        }
+    }
+
+    @Then("all responses should match schema: {}")
+    public void validateSchemaOfAllResponses(String schemaPath) {
+        SchemaValidator validator = context.get(Context.SCHEMA_VALIDATOR);
+        String path = Config.get("schema.directory", "src/test/resources/schemas") + "/" + schemaPath;
+        responses().forEach(response -> validator.validate(response.json(), path));
+    }
+
+    @Then("extract values from all responses")
+    public void extractValuesFromAllResponses(Map<String, String> input) {
+        PathExtractor extractor = context.get(Context.PATH_EXTRACTOR);
+        Map<CompiledPath, KeyDescriptor> paths = compilePaths(input);
+        Map<CompiledPath, List<Object>> values = new LinkedHashMap<>();
+        paths.keySet().forEach(path -> values.put(path, new ArrayList<>()));
+
+        responses().forEach(response -> {
+            Map<CompiledPath, List<JsonNode>> nodes = extractor.resolveAll(response.json(), paths.keySet());
+            paths.forEach((path, descriptor) -> values.get(path).add(
+                    extractor.extract(path, nodes.get(path), descriptor.key(), descriptor.type())));
+        });
+        paths.forEach((path, descriptor) -> context.set(descriptor.key(), values.get(path)));
+    }
+
+    @When("send {int} {} requests at {int} per second with concurrency {int}")
+    public void sendLoad(int requests, String method, int ratePerSecond, int concurrency) {
+        LoadRunner.LoadReport report = new LoadRunner().run(requests, ratePerSecond, concurrency,
+                () -> send(method));
+        context.set(Context.LOAD_REPORT, report);
+    }
+
+    @Then("load error rate should be below {double} percent")
+    public void validateLoadErrorRate(Double maxErrorRate) {
+        LoadRunner.LoadReport report = context.get(Context.LOAD_REPORT);
+        Assert.assertTrue(report.errorRate() < maxErrorRate,
+                String.format("error rate %.2f %% is not below %.2f %%", report.errorRate(), maxErrorRate));
+    }
+
+    @Then("load p{double} latency should be below {int} ms")
+    public void validateLoadLatency(Double percentile, Integer maxMillis) {
+        LoadRunner.LoadReport report = context.get(Context.LOAD_REPORT);
+        double latency = report.latencyMillis(percentile);
+        Assert.assertTrue(latency < maxMillis,
+                String.format("p%s latency %.1f ms is not below %d ms", percentile, latency, maxMillis));
     }
 
     @Then("validate status code of {}")
     public void validateStatusCode(Integer expectedStatusCode) {
-        HttpResponse<String> response = (HttpResponse<String>) context.get("response", CompletableFuture.class).join();
-        assert response.statusCode() == expectedStatusCode;
+        assert response().statusCode() == expectedStatusCode;
     }
 
     @Then("the response body should match schema: {}")
-    public void validateSchema(String schemaPath) throws Exception {
-        HttpResponse<String> response = (HttpResponse<String>) context.get("response", CompletableFuture.class).join();
-        context.get("SchemaValidator", SchemaValidator.class).validate(response.body(), "src/test/resources/schemas/" + schemaPath);
+    public void validateSchema(String schemaPath) {
+        context.get(Context.SCHEMA_VALIDATOR).validate(response().json(),
+                Config.get("schema.directory", "src/test/resources/schemas") + "/" + schemaPath);
     }
 
     @Then("extract values from response")
     public void extractValuesFromResponse(Map<String, String> input) {
-        HttpResponse<String> response = (HttpResponse<String>) context.get("response", CompletableFuture.class).join();
-        PathExtractor extractor = context.get("PathExtractor", PathExtractor.class);
-        JsonNode root;
-        try {
-            root = new ObjectMapper().readTree(response.body());
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+        JsonNode root = response().json();
+        PathExtractor extractor = context.get(Context.PATH_EXTRACTOR);
+        Map<CompiledPath, KeyDescriptor> paths = compilePaths(input);
+        bindExtractedValues(paths, extractor.resolveAll(root, paths.keySet()));
+    }
+
+    private List<ApiResponse> responses() {
+        List<?> responses = (List<?>) context.get(Context.RESPONSES);
+        Assert.assertNotNull(responses, "no batch of responses was sent");
+        if (!responses.isEmpty() && responses.getFirst() instanceof CompletableFuture<?>) {
+            List<CompletableFuture<ApiResponse>> pending = (List<CompletableFuture<ApiResponse>>) responses;
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+            List<ApiResponse> completed = pending.stream().map(CompletableFuture::join).toList();
+            context.set(Context.RESPONSES, completed);
+            return completed;
         }
+        return (List<ApiResponse>) responses;
+    }
 
-        input.forEach((jsonPath, k) -> {
-            String[] parts = k.split(":");
-            String key = parts[0];
-            String type = parts.length > 1 ? parts[1] : "string";
-            Object value = extractor.extractByPath(root, jsonPath, key, type);
-            context.set(key, value);
+    private String scenarioFileName() {
+        String scenarioId = context.get(Context.SCENARIO_ID);
+        if (scenarioId == null) {
+            return "scenario";
+        }
+        return scenarioId.substring(scenarioId.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static Map<String, String> mapOrEmpty(Map<String, String> map) {
+        return map != null ? map : Map.of();
+    }
+
+    private static List<?> listOf(Object values) {
+        if (values == null) return null;
+        if (values instanceof Collection<?> collection) return new ArrayList<>(collection);
+        int length = Array.getLength(values);
+        List<Object> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(Array.get(values, i));
+        }
+        return list;
+    }
+
+    private ApiResponse response() {
+        Object response = context.get(Context.RESPONSE);
+        if (response instanceof CompletableFuture<?> pending) {
+            ApiResponse completed = (ApiResponse) pending.join();
+            context.set(Context.RESPONSE, completed);
+            return completed;
+        }
+        return (ApiResponse) response;
+    }
+
+    private CompletableFuture<ApiResponse> send(String method) {
+        return send(method, context.get(Context.PATH_PARAMETERS), context.get(Context.QUERY_PARAMETERS));
+    }
+
+    private CompletableFuture<ApiResponse> send(String method, Map<String, String> pathParameters,
+                                                Map<String, String> queryParameters) {
+        return send(method, pathParameters, queryParameters, context.get(Context.BODY));
+    }
+
+    private CompletableFuture<ApiResponse> send(String method, Map<String, String> pathParameters,
+                                                Map<String, String> queryParameters, Object body) {
+        AsyncRestClient restClient = context.get(Context.REST_CLIENT);
+        return restClient.sendAsync(
+                method.toUpperCase(),
+                context.get(Context.BASE_URL) + context.get(Context.ENDPOINT),
+                context.get(Context.HEADERS),
+                pathParameters,
+                queryParameters,
+                context.get(Context.FORM_PARAMETERS),
+                body
+        );
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(String method, HttpResponse.BodyHandler<T> bodyHandler) {
+        AsyncRestClient restClient = context.get(Context.REST_CLIENT);
+        return restClient.sendAsync(
+                method.toUpperCase(),
+                context.get(Context.BASE_URL) + context.get(Context.ENDPOINT),
+                context.get(Context.HEADERS),
+                context.get(Context.PATH_PARAMETERS),
+                context.get(Context.QUERY_PARAMETERS),
+                context.get(Context.FORM_PARAMETERS),
+                context.get(Context.BODY),
+                bodyHandler
+        );
+    }
+
+    private void addTo(Context.Key<Map<String, String>> key, Map<String, String> input) {
+        var resolved = new HashMap<String, Object>();
+        resolveParameterizedMapValues(input, resolved);
+        var values = new HashMap<>(mapOrEmpty(context.get(key)));
+        resolved.forEach((name, value) -> values.put(name, value != null ? String.valueOf(value) : null));
+        context.set(key, values);
+    }
+
+    private void generateValues(Map<String, String> input, BiFunction<String, String, Object> generator) {
+        var params = input.entrySet().stream().collect(Collectors.toMap(
+                entry -> entry.getKey().toLowerCase(),
+                Map.Entry::getValue));
+        params.forEach((k, v) -> {
+            KeyDescriptor descriptor = KeyDescriptor.compile(k);
+            context.set(descriptor.key(), generator.apply(v, descriptor.type()));
+        });
+    }
+
+    private Map<CompiledPath, KeyDescriptor> compilePaths(Map<String, String> input) {
+        Map<CompiledPath, KeyDescriptor> paths = new LinkedHashMap<>();
+        input.forEach((jsonPath, k) -> paths.put(CompiledPath.compile(jsonPath), KeyDescriptor.compile(k)));
+        return paths;
+    }
+
+    private void bindExtractedValues(Map<CompiledPath, KeyDescriptor> paths, Map<CompiledPath, List<JsonNode>> nodes) {
+        PathExtractor extractor = context.get(Context.PATH_EXTRACTOR);
+        paths.forEach((path, descriptor) -> {
+            Object value = extractor.extract(path, nodes.get(path), descriptor.key(), descriptor.type());
+            context.set(descriptor.key(), value);
         });
     }
 
     private void resolveParameterizedMapValues(Map<String, String> source, Map<String, Object> target) {
-        TypeConverter typeConverter = context.get("TypeConverter", TypeConverter.class);
+        resolveParameterizedMapValues(source, target, false);
+    }
+
+    private void resolveParameterizedMapValues(Map<String, String> source, Map<String, Object> target,
+                                               boolean nested) {
+        TypeConverter typeConverter = context.get(Context.TYPE_CONVERTER);
         source.forEach((k, v) -> {
-            String[] parts = k.split(":");
-            String key = parts[0];
-            String type = parts.length > 1 ? parts[1] : "string";
-            Object value;
-            if (v.contains("{")) {
-                String resolvedValue = v;
-                Matcher matcher = pattern.matcher(v);
-                while (matcher.find()) {
-                    String placeholder = matcher.group(1);
-                    Object contextValue = context.get(placeholder, Object.class);
-                    if (contextValue != null) {
-                        resolvedValue = resolvedValue.replace("{" + placeholder + "}", String.valueOf(contextValue));
-                    }
-                }
-                value = typeConverter.convert(resolvedValue, type);
+            KeyDescriptor descriptor = KeyDescriptor.compile(k);
+            String resolvedValue = CellTemplate.compile(v).render(
+                    placeholder -> context.get(placeholder, Object.class), renderBuffer);
+            Object value = typeConverter.convert(resolvedValue, descriptor.type());
+            if (nested && descriptor.isNested()) {
+                putNested(target, descriptor, value);
+            } else {
+                target.put(descriptor.key(), value);
+            }
+        });
+    }
+
+    private CompletableFuture<ApiResponse> sendRow(String method, Map<String, String> pathParameters, Object body) {
+        try {
+            return send(method, pathParameters, context.get(Context.QUERY_PARAMETERS), body);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Object renderRow(Map<String, String> template, Map<String, Object> row) {
+        if (template.isEmpty()) {
+            return context.get(Context.BODY);
+        }
+        TypeConverter typeConverter = context.get(Context.TYPE_CONVERTER);
+        var existing = context.get(Context.BODY) instanceof Map<?, ?> map ? map : Map.of();
+        var body = new LinkedHashMap<String, Object>((Map<String, Object>) existing);
+        template.forEach((k, v) -> {
+            KeyDescriptor descriptor = KeyDescriptor.compile(k);
+            CellTemplate cell = CellTemplate.compile(v);
+            String column = cell.singlePlaceholder();
+            Object value = column != null && row.containsKey(column)
+                    ? row.get(column)
+                    : typeConverter.convert(cell.render(placeholder -> row.containsKey(placeholder)
+                    ? row.get(placeholder) : context.get(placeholder, Object.class), renderBuffer), descriptor.type());
+            if (descriptor.isNested()) {
+                putNested(body, descriptor, value);
             } else {
-                value = typeConverter.convert(v, type);
+                body.put(descriptor.key(), value);
             }
-            target.put(key, value);
         });
+        return body;
+    }
+
+    private static void putNested(Map<String, Object> target, KeyDescriptor descriptor, Object value) {
+        Map<String, Object> current = target;
+        for (int i = 0; i < descriptor.depth() - 1; i++) {
+            String segment = descriptor.segment(i);
+            Object child = current.get(segment);
+            if (child != null && !(child instanceof Map)) {
+                throw new IllegalArgumentException(String.format(
+                        "body key %s conflicts with existing value of %s", descriptor.key(), segment));
+            }
+            var copy = new LinkedHashMap<String, Object>(child != null ? (Map<String, Object>) child : Map.of());
+            current.put(segment, copy);
+            current = copy;
+        }
+        current.put(descriptor.segment(descriptor.depth() - 1), value);
     }
 }
@@ -29,4 +29,11 @@ Feature: User API Validation
       | name | {name} |
       | job  | {job}  |
     When send a POST request
-    Then validate status code of 201
\ No newline at end of file
+    Then validate status code of 201
+
+  Scenario: Create from data
+    And set endpoint to /
+    When send a POST request for each row of src/test/resources/data/users.csv expecting status 201
+      | name | {name} |
+      | job  | {job}  |
+    Then all rows should pass